@@ -0,0 +1,76 @@
+package com.ducksonflame.dynablaster.benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.ducksonflame.dynablaster.Board;
+import com.ducksonflame.dynablaster.Game;
+import com.ducksonflame.dynablaster.GameConfig;
+
+/**
+ * Per-tick cost over arena sizes from the default 8x6 up to 256x256 free tiles, with the same activity on every size:
+ * player 1 walking back and forth and an explosion every half second.
+ * <br>step - one Game.step, snapshot included.
+ * <br>frame - one Game.step plus Board.updateFrame of the default 17x13 tile viewport (which scrolls on the larger arenas).
+ * <br>Both should stay flat as the arena grows. Must be run from the repository root, the images folder is loaded from the working directory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx2g"})
+public class ArenaSizeBenchmark {
+
+	@Param({"8x6", "16x12", "32x32", "64x64", "128x128", "256x256"})
+	private String arena;
+
+	private Board board;
+	private Game game;
+	private final int[] inputs = new int[2];
+	private int steps;
+	private int tile;
+
+	@Setup(Level.Trial)
+	public void setUp () throws InterruptedException {
+		String[] size = arena.split("x");
+		GameConfig config = GameConfig.defaults().with("tileSize", "50").with("columns", size[0]).with("rows", size[1]);
+		board = new Board(null, config);
+		board.stopTimer();
+		Thread.sleep(100); //Let the last GameLoop tick finish, the game is stepped by hand from here on
+
+		game = board.getGame();
+		tile = config.getTileSize();
+		game.step(inputs);
+		board.updateFrame(game.getSnapshot(), 1);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown () {
+		board.dispose();
+	}
+
+	private void advance () {
+		inputs[0] = ((steps / 240) % 2 == 0) ? Game.RIGHT : Game.LEFT;
+		if (steps % 60 == 0) {
+			game.newExplosion(5*tile, 7*tile, game.getConfig().getInitialRange());
+		}
+		steps++;
+		game.step(inputs);
+	}
+
+	@Benchmark
+	public long step () {
+		advance();
+		return game.getTick();
+	}
+
+	@Benchmark
+	public BufferedImage frame () {
+		advance();
+		board.updateFrame(game.getSnapshot(), 1);
+		return board.getFrame();
+	}
+}
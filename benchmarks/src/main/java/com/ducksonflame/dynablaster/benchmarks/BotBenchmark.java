@@ -0,0 +1,75 @@
+package com.ducksonflame.dynablaster.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.ducksonflame.dynablaster.Bot;
+import com.ducksonflame.dynablaster.Game;
+import com.ducksonflame.dynablaster.GameConfig;
+import com.ducksonflame.dynablaster.ThreatBot;
+import com.ducksonflame.dynablaster.WanderBot;
+
+/**
+ * Decision cost of the bots in a four player match on a walled arena, headless.
+ * <br>decide - one nextInput per living player and the Game.step they feed, i.e. one tick of a bot match. The difference between
+ * wander and threat is the price of the threat map and the timed searches, divide by four for a single bot.
+ * <br>A finished match is replaced by the next one (seeds 1, 2, 3...), so the benchmark runs through whole matches: openings, walled mid-game
+ * and bomb-heavy endings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BotBenchmark {
+
+	private static final GameConfig CONFIG = GameConfig.defaults().with("players", "4").with("spawnRate", "0.9").with("powerUpRate", "0.3");
+	private static final int MAX_TICKS = 120*300;
+
+	@Param({"wander", "threat"})
+	public String bot;
+
+	private Game game;
+	private Bot[] bots;
+	private final int[] inputs = new int[4];
+	private int match;
+
+	@Setup(Level.Iteration)
+	public void setUp () {
+		match = 0;
+		next();
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown () {
+		game.dispose();
+	}
+
+	private void next () {
+		if (game != null) {
+			game.dispose();
+		}
+		match++;
+		game = new Game(CONFIG.with("seed", String.valueOf(match)));
+		bots = new Bot[inputs.length];
+		for (int p = 0; p < bots.length; p++) {
+			bots[p] = bot.equals("threat") ? new ThreatBot(match*31 + p) : new WanderBot(match*31 + p);
+		}
+	}
+
+	@Benchmark
+	public int decide () {
+		int input = 0;
+		for (int p = 0; p < bots.length; p++) {
+			inputs[p] = game.getPlayers()[p].isAlive() ? bots[p].nextInput(game, p) : 0;
+			input |= inputs[p];
+		}
+		game.step(inputs);
+		if (game.isOver() || game.getTick() >= MAX_TICKS) {
+			next();
+		}
+		return input;
+	}
+}
@@ -0,0 +1,51 @@
+package com.ducksonflame.dynablaster.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.ducksonflame.dynablaster.Game;
+import com.ducksonflame.dynablaster.GameConfig;
+
+/**
+ * Chain reaction resolution: a row of bombs, each in range of the next, set off by one explosion at the end of the row.
+ * <br>The game is rebuilt before every invocation because a chain can only go off once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChainReactionBenchmark {
+
+	private static final GameConfig CONFIG = GameConfig.defaults();
+
+	//Row 5 is free from wall to wall and away from both spawn points
+	private static final int ROW = 5;
+
+	@Param({"1", "4", "7"})
+	private int bombs;
+
+	private Game game;
+
+	@Setup(Level.Invocation)
+	public void setUp () {
+		game = new Game(CONFIG);
+		for (int i = 0; i < bombs; i++) {
+			game.placeBomb(game.p2, (3 + 2*i)*CONFIG.getTileSize(), ROW*CONFIG.getTileSize());
+		}
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDown () {
+		game.dispose();
+	}
+
+	@Benchmark
+	public int resolve () {
+		game.newExplosion(CONFIG.getTileSize(), ROW*CONFIG.getTileSize(), CONFIG.getInitialRange());
+		game.resolveDetonations();
+		return game.getExplosions().size();
+	}
+}
@@ -0,0 +1,43 @@
+package com.ducksonflame.dynablaster.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.ducksonflame.dynablaster.DestrWalls;
+import com.ducksonflame.dynablaster.Game;
+import com.ducksonflame.dynablaster.GameConfig;
+import com.ducksonflame.dynablaster.TileGrid;
+
+/**
+ * Arena setup: an empty grid filled with destructible walls (the spawnRate setting decides how many).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DestrWallsBenchmark {
+
+	private static final GameConfig CONFIG = GameConfig.defaults();
+
+	private Game game;
+
+	@Setup(Level.Trial)
+	public void setUp () {
+		game = new Game(CONFIG);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown () {
+		game.dispose();
+	}
+
+	@Benchmark
+	public TileGrid construct () {
+		TileGrid grid = new TileGrid(CONFIG.getColumns(), CONFIG.getRows());
+		new DestrWalls(game, grid);
+		return grid;
+	}
+}
@@ -0,0 +1,69 @@
+package com.ducksonflame.dynablaster.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.ducksonflame.dynablaster.Game;
+import com.ducksonflame.dynablaster.GameConfig;
+import com.ducksonflame.dynablaster.TileGrid;
+
+/**
+ * Steady bomb-heavy endgame, headless: one Game.step per invocation, with a new bomb on the middle of the arena whenever the next tile is free and
+ * now and then a wall rebuilt next to it, so explosions keep crumbling walls, dropping powerUps and burning them. Players wait in their corners, out of reach.
+ * <br>The bombs are player 1's (Character.placeBomb(x, y)), so they go through the bomb accounting like bombs dropped by input - the limit is raised to cover the middle tiles.
+ * <br>Run with -prof gc: gc.alloc.rate.norm is the garbage of one tick, the published snapshot included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EndgameBenchmark {
+
+	//Bombs go on the middle tiles (columns 4 to 12, rows 3 to 9), rays of range 2 stay away from the corners
+	private static final int FIRST_COLUMN = 4;
+	private static final int COLUMNS = 9;
+	private static final int FIRST_ROW = 3;
+	private static final int ROWS = 7;
+
+	private static final GameConfig CONFIG = GameConfig.defaults().with("players", "4").with("powerUpRate", "1").with("seed", "1")
+			.with("initialMaxBombs", String.valueOf(COLUMNS*ROWS));
+	private static final int WALL_EVERY = 4; //Bombs placed per wall rebuilt
+
+	private Game game;
+	private final int[] inputs = new int[4];
+	private int next;
+
+	@Setup(Level.Iteration)
+	public void setUp () {
+		game = new Game(CONFIG);
+		next = 0;
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown () {
+		game.dispose();
+	}
+
+	@Benchmark
+	public long step () {
+		int tile = (next++ * 11) % (COLUMNS*ROWS);
+		int col = FIRST_COLUMN + tile % COLUMNS;
+		int row = FIRST_ROW + tile / COLUMNS;
+		TileGrid grid = game.getGrid();
+		if (free(grid, col, row) && game.isBurning(col, row) == false) {
+			game.p1.placeBomb(col*CONFIG.getTileSize(), row*CONFIG.getTileSize());
+			if (next % WALL_EVERY == 0 && free(grid, col+1, row)) {
+				grid.setTerrain(col+1, row, TileGrid.WALL);
+			}
+		}
+		game.step(inputs);
+		return game.getTick();
+	}
+
+	private static boolean free (TileGrid grid, int col, int row) {
+		return grid.getTerrain(col, row) == TileGrid.EMPTY && grid.hasBomb(col, row) == false && grid.getPowerUp(col, row) == 0;
+	}
+}
@@ -0,0 +1,91 @@
+package com.ducksonflame.dynablaster.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.ducksonflame.dynablaster.Game;
+import com.ducksonflame.dynablaster.GameConfig;
+import com.ducksonflame.dynablaster.GameLoop;
+
+/**
+ * Explosion handling with N explosions on the field at once (what Board.explosionCheck used to do every frame).
+ * <br>lifetime - detonates N explosions and steps the game until all of them are gone: ray propagation, per-tick fire checks and the scheduled ends.
+ * <br>fireCheck - the per-tick player check alone while N explosions are burning. Should not depend on N.
+ * <br>Explosion centers are spread over the middle of the arena so no player is ever hit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExplosionBenchmark {
+
+	private static final GameConfig CONFIG = GameConfig.defaults();
+
+	@Param({"1", "8", "24"})
+	private int explosions;
+
+	private Game game;
+	private final int[] inputs = new int[2];
+	private int[] xs;
+	private int[] ys;
+	private int lifeTicks;
+
+	@Setup(Level.Iteration)
+	public void setUp () {
+		game = new Game(CONFIG);
+		xs = new int[explosions];
+		ys = new int[explosions];
+		for (int i = 0; i < explosions; i++) {
+			xs[i] = (3 + 2*(i % 6))*CONFIG.getTileSize();
+			ys[i] = (3 + 2*((i/6) % 4))*CONFIG.getTileSize();
+		}
+		lifeTicks = GameLoop.millisToTicks(CONFIG.getExplosionLife()) + 1;
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown () {
+		game.dispose();
+	}
+
+	@Benchmark
+	public int lifetime () {
+		for (int i = 0; i < explosions; i++) {
+			game.newExplosion(xs[i], ys[i], CONFIG.getInitialRange());
+		}
+		for (int t = 0; t < lifeTicks; t++) {
+			game.step(inputs);
+		}
+		return game.getExplosions().size();
+	}
+
+	@State(Scope.Thread)
+	public static class Burning {
+
+		@Param({"1", "8", "24"})
+		private int explosions;
+
+		private Game game;
+
+		@Setup(Level.Iteration)
+		public void setUp () {
+			game = new Game(CONFIG);
+			for (int i = 0; i < explosions; i++) {
+				game.newExplosion((3 + 2*(i % 6))*CONFIG.getTileSize(), (3 + 2*((i/6) % 4))*CONFIG.getTileSize(), CONFIG.getInitialRange());
+			}
+		}
+
+		@TearDown(Level.Iteration)
+		public void tearDown () {
+			game.dispose();
+		}
+	}
+
+	@Benchmark
+	public boolean fireCheck (Burning state) {
+		state.game.fireCheck();
+		return state.game.isOver();
+	}
+}
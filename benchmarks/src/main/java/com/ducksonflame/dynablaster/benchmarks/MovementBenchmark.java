@@ -0,0 +1,104 @@
+package com.ducksonflame.dynablaster.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.ducksonflame.dynablaster.Character;
+import com.ducksonflame.dynablaster.Game;
+import com.ducksonflame.dynablaster.GameConfig;
+
+/**
+ * Character movement collision paths and tile lookups.
+ * <br>Each round trip moves one step and back, so the player stays in place and every invocation takes the same path.
+ * <br>blocked - a move into the outer wall, i.e. the collision check that rejects the step.
+ * <br>slide - a move down from half a margin beside the lane, i.e. the corner slide back into it.
+ * <br>walk - one Character.step with a held key, walking player 1 down the first column and back up (every step of a real match).
+ * <br>walkFast - the same at the fastest pace (all speedUps picked up), should cost the same as walk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovementBenchmark {
+
+	private Game game;
+	private Character vertical;
+	private Character horizontal;
+	private Game sliding;
+	private Game fast;
+	private int steps;
+
+	@Setup(Level.Iteration)
+	public void setUp () {
+		game = new Game();
+		vertical = game.p1;
+		vertical.moveDown();
+		horizontal = game.p2;
+		horizontal.moveLeft();
+		sliding = new Game();
+		fast = new Game(GameConfig.defaults().with("initialCharTimerSpeed", "3"));
+		steps = 0;
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown () {
+		game.dispose();
+		sliding.dispose();
+		fast.dispose();
+	}
+
+	@Benchmark
+	public int downUp () {
+		vertical.moveDown();
+		vertical.moveUp();
+		return vertical.getY();
+	}
+
+	@Benchmark
+	public int leftRight () {
+		horizontal.moveLeft();
+		horizontal.moveRight();
+		return horizontal.getX();
+	}
+
+	@Benchmark
+	public int blocked () {
+		horizontal.moveDown();
+		return horizontal.getY();
+	}
+
+	@Benchmark
+	public int slide () {
+		//Right by half the margin (out of the lane), then down - the down move slides back to the lane
+		Character c = sliding.p1;
+		int margin = sliding.getConfig().getMovementErrorMargin();
+		for (int i = 0; i < margin/2; i++) {
+			c.moveRight();
+		}
+		for (int i = 0; i < margin/2; i++) {
+			c.moveDown();
+		}
+		return c.getX();
+	}
+
+	@Benchmark
+	public int walk () {
+		vertical.step(((steps++ / 480) % 2 == 0) ? Game.DOWN : Game.UP);
+		return vertical.getY();
+	}
+
+	@Benchmark
+	public int walkFast () {
+		Character c = fast.p1;
+		c.step(((steps++ / 180) % 2 == 0) ? Game.DOWN : Game.UP);
+		return c.getY();
+	}
+
+	@Benchmark
+	public int currentTile () {
+		return vertical.getTileX() + vertical.getTileY();
+	}
+}
@@ -0,0 +1,89 @@
+package com.ducksonflame.dynablaster.benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.ducksonflame.dynablaster.Board;
+import com.ducksonflame.dynablaster.Game;
+import com.ducksonflame.dynablaster.GameConfig;
+
+/**
+ * Board rendering into an off-screen BufferedImage, headless.
+ * <br>full - a whole frame drawn from scratch (Board.drawFrame, the pre-incremental paintComponent).
+ * <br>incremental - one game step with player 1 walking back and forth, then Board.updateFrame redrawing only the changed tiles.
+ * <br>blit - paintComponent as Swing calls it, copying the composed frame.
+ * <br>idle - the starting arena. busy - bombs and explosions on the field as well.
+ * <br>Both tile sizes images are shipped for (50 and 100) are measured in the same run.
+ * <br>Must be run from the repository root, the images folder is loaded from the working directory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+	@Param({"idle", "busy"})
+	private String scene;
+
+	@Param({"50", "100"})
+	private String tileSize;
+
+	private Board board;
+	private Game game;
+	private final int[] inputs = new int[2];
+	private int steps;
+	private BufferedImage image;
+	private Graphics2D g;
+
+	@Setup(Level.Trial)
+	public void setUp () throws InterruptedException {
+		board = new Board(null, GameConfig.defaults().with("tileSize", tileSize));
+		board.stopTimer();
+		Thread.sleep(100); //Let the last GameLoop tick finish, the game is stepped by hand from here on
+
+		game = board.getGame();
+		int tile = game.getConfig().getTileSize();
+		if (scene.equals("busy")) {
+			for (int col = 3; col <= 13; col += 2) {
+				game.placeBomb(game.p2, col*tile, 5*tile);
+				game.newExplosion(col*tile, 9*tile, game.getConfig().getInitialRange());
+			}
+		}
+		game.step(inputs);
+		board.updateFrame(game.getSnapshot(), 1);
+
+		image = new BufferedImage(board.getPreferredSize().width, board.getPreferredSize().height, BufferedImage.TYPE_INT_RGB);
+		g = image.createGraphics();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown () {
+		g.dispose();
+		board.dispose();
+	}
+
+	@Benchmark
+	public BufferedImage full () {
+		board.drawFrame(g, game.getSnapshot(), 1);
+		return image;
+	}
+
+	@Benchmark
+	public BufferedImage incremental () {
+		inputs[0] = ((steps++ / 240) % 2 == 0) ? Game.DOWN : Game.UP;
+		game.step(inputs);
+		board.updateFrame(game.getSnapshot(), 1);
+		return board.getFrame();
+	}
+
+	@Benchmark
+	public BufferedImage blit () {
+		board.paintComponent(g);
+		return image;
+	}
+}
@@ -0,0 +1,82 @@
+package com.ducksonflame.dynablaster.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.ducksonflame.dynablaster.Game;
+import com.ducksonflame.dynablaster.GameConfig;
+import com.ducksonflame.dynablaster.MatchRecorder;
+import com.ducksonflame.dynablaster.MatchReplay;
+
+/**
+ * Headless playback of a whole recorded match, checkpoints verified - the engine on real traffic.
+ * <br>replay - path of a recording (--record=file), e.g. -p replay=matches/report.dynr. Empty records a generated four player match first:
+ * random walking, a bomb now and then.
+ * <br>Score is the time per match, play:ticks the time per tick (the score divided by the match length).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true"})
+public class ReplayBenchmark {
+
+	@Param({""})
+	private String replay;
+
+	private byte[] recording;
+
+	/**
+	 * Ticks played back. JMH reports them next to the score as play:ticks, the time per tick.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Ticks {
+		public long ticks;
+
+		@Setup(Level.Iteration)
+		public void reset () {
+			ticks = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp () throws IOException {
+		recording = replay.isEmpty() ? generate() : Files.readAllBytes(Paths.get(replay));
+	}
+
+	private static byte[] generate () throws IOException {
+		GameConfig config = GameConfig.defaults().with("players", "4").with("spawnRate", "0.9").with("seed", "1");
+		Game game = new Game(config);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		MatchRecorder recorder = new MatchRecorder(out, game.getConfig());
+		SplittableRandom random = new SplittableRandom(1);
+		int[] inputs = new int[config.getPlayers()];
+		while (game.isOver() == false && game.getTick() < 100000) {
+			if (game.getTick() % 30 == 0) {
+				for (int p = 0; p < inputs.length; p++) {
+					inputs[p] = (1 << random.nextInt(4)) | (random.nextInt(40) == 0 ? Game.BOMB : 0);
+				}
+			}
+			game.step(inputs);
+			recorder.record(game, inputs);
+		}
+		recorder.close(game);
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	public long play (Ticks counter) throws IOException {
+		long tick = new MatchReplay(new ByteArrayInputStream(recording)).play().getTick();
+		counter.ticks += tick;
+		return tick;
+	}
+}
@@ -0,0 +1,42 @@
+package com.ducksonflame.dynablaster;
+
+/**
+ * A Clip playing for one entity, advanced by the game's Animator. show(frame) is called every time the clip moves on to a frame,
+ * the entity stores the frame where the renderer finds it (TileGrid or Character).
+ * <br>An Animation can be played again with any clip, replacing the one it plays. Stopping is O(1).
+ */
+public abstract class Animation {
+
+	//Managed by the Animator
+	Animator animator;
+	Clip clip;
+	int next; //Index of the frame shown next
+	long nextTick; //Animator tick it is shown at
+	int index = -1; //Position in the Animator's list, -1 if not playing
+
+	/**
+	 * Shows a frame of the clip. Runs on the game loop thread and must not start or stop animations.
+	 * @param frame Frame from the clip's frame list
+	 */
+	public abstract void show (int frame);
+
+	/**
+	 * Stops the animation, the last frame shown stays. Does nothing if it is not playing.
+	 */
+	public void stop () {
+		if (index >= 0) {
+			animator.remove(this);
+		}
+	}
+
+	public boolean isPlaying () {
+		return index >= 0;
+	}
+
+	/**
+	 * @return Returns the clip played last (null if never played).
+	 */
+	public Clip getClip () {
+		return clip;
+	}
+}
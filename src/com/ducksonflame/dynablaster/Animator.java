@@ -0,0 +1,137 @@
+package com.ducksonflame.dynablaster;
+
+/**
+ * Plays every sprite animation of a match: bomb ticking, powerUp flashing and burning, crumbling walls and walking players.
+ * Advanced once per step by the Game, right after the players moved, so all animations run on game time - they pause and resume
+ * with the game, need no task or thread of their own and cost one comparison per playing animation and tick.
+ * <br>Also holds the clips of the match, timed from its GameConfig. Timing follows TickScheduler: an animation started during the
+ * players' step is already advanced in the same step.
+ * <br>Only used by the thread calling Game.step.
+ */
+public class Animator {
+
+	//Clips of the match. Frames are the values the renderer looks up: bomb frame, powerUp frame, terrain and avatar frame.
+	public final Clip BOMB;
+	public final Clip POWER_UP_FLASH;
+	public final Clip POWER_UP_BURN;
+	public final Clip WALL_CRUMBLE;
+	public final Clip[] WALK; //By Character facing
+
+	//PowerUp flashing speed in ms
+	private static final int FLASH_DELAY = 450;
+
+	//Playing animations (unordered, removed by swapping in the last one)
+	private Animation[] playing = new Animation[16];
+	private int count;
+	private long tick;
+	private volatile boolean shutDown;
+
+	/**
+	 * Creates the clips of the match.
+	 * @param config Settings of the match
+	 */
+	public Animator (GameConfig config) {
+		BOMB = Clip.ofMillis(config.getBombChangeDelay(), true, 0, 1);
+		POWER_UP_FLASH = Clip.ofMillis(FLASH_DELAY, true, PowerUp.FRAME_1, PowerUp.FRAME_2);
+		POWER_UP_BURN = Clip.ofMillis(config.getExplosionLife()/2, false, PowerUp.FRAME_BURN_1, PowerUp.FRAME_BURN_2);
+		WALL_CRUMBLE = Clip.ofMillis(config.getExplosionLife()/2, false, TileGrid.CRUMBLING_1, TileGrid.CRUMBLING_2);
+		int walkDelay = 5*config.getInitialCharTimerSpeed()+100;
+		WALK = new Clip[4];
+		WALK[Character.FACING_UP] = Clip.ofMillis(walkDelay, true, 0, 1, 0, 2);
+		WALK[Character.FACING_DOWN] = Clip.ofMillis(walkDelay, true, 0, 1, 0, 2);
+		WALK[Character.FACING_LEFT] = Clip.ofMillis(walkDelay, true, 0, 1);
+		WALK[Character.FACING_RIGHT] = Clip.ofMillis(walkDelay, true, 0, 1);
+	}
+
+	/**
+	 * Plays the clip from its first frame, replacing whatever the animation played before.
+	 * @param animation Animation to play
+	 * @param clip Clip to play
+	 * @param delay Ticks before the first frame, 0 shows it right away
+	 */
+	public void play (Animation animation, Clip clip, int delay) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Negative delay");
+		}
+		if (shutDown) {
+			return;
+		}
+		animation.animator = this;
+		animation.clip = clip;
+		animation.next = 0;
+		animation.nextTick = tick + delay;
+		if (animation.index < 0) {
+			if (count == playing.length) {
+				Animation[] bigger = new Animation[playing.length*2];
+				System.arraycopy(playing, 0, bigger, 0, count);
+				playing = bigger;
+			}
+			animation.index = count;
+			playing[count++] = animation;
+		}
+		if (delay == 0) {
+			showNext(animation);
+		}
+	}
+
+	/**
+	 * Moves every animation by one tick, showing the frames that are due.
+	 */
+	public void advance () {
+		if (shutDown) {
+			return;
+		}
+		tick++;
+		//Backwards, so an animation that ends swaps in one that was already advanced
+		for (int i = count-1; i >= 0; i--) {
+			Animation a = playing[i];
+			if (a.nextTick <= tick) {
+				showNext(a);
+			}
+		}
+	}
+
+	private void showNext (Animation a) {
+		Clip clip = a.clip;
+		a.show(clip.getFrame(a.next));
+		a.next++;
+		if (a.next == clip.getLength()) {
+			if (clip.isLoop() == false) {
+				remove(a);
+				return;
+			}
+			a.next = 0;
+		}
+		a.nextTick = tick + clip.getFrameTicks();
+	}
+
+	/**
+	 * Takes the animation off the list. Called by Animation.stop().
+	 */
+	void remove (Animation a) {
+		int i = a.index;
+		Animation last = playing[--count];
+		playing[i] = last;
+		last.index = i;
+		playing[count] = null;
+		a.index = -1;
+	}
+
+	/**
+	 * Stops advancing and refuses new animations. Used when the match is torn down.
+	 */
+	public void dispose () {
+		shutDown = true;
+	}
+
+	/**
+	 * @return Returns the number of animations playing.
+	 */
+	public int getPlaying () {
+		return count;
+	}
+
+	public long getTick () {
+		return tick;
+	}
+}
@@ -1,93 +1,193 @@
 package com.ducksonflame.dynablaster;
 
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.EventQueue;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.RescaleOp;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.awt.event.KeyEvent;
-import java.awt.event.KeyListener;
 import java.awt.Dimension;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 
-import javax.swing.ImageIcon;
 import javax.swing.JPanel;
 import javax.swing.Timer;
 
-import java.util.*;
-
 /**
- * Main game JPanel - core of the game.
+ * Main game JPanel - renderer and keyboard adapter for the headless Game model.
  * Available TILE_SIZE's: 50, 100 - in order to add support for other sizes, add appropriate image sizes (only even TILE.SIZE's).
- * The Board contains several finals that can be modified (currently only via source code modifications) in order to mod the game settings.
- * <br><br>Settings that can be modified:
- * <br><br>MOVEMENT_ERROR_MARGIN - Tolerance for player movement collision. Allows for non-pixelperfect movement. (default is 50).
- * <br>TILE_SIZE - Size of a Tile in pixels. (for 1080p screens and below suggested is 50, for higher res screens - 100).
- * <br>NUMBER_OF_FREE_COLUMNS - Number of columns (default is 8). 
- * <br>NUMBER_OF_FREE_ROWS - Number of rows (default is 6). 
- * <br>GAP_WIDTH - Size of the gap between left/right edges and the outside walls. Only cosmetics. (Default and recommended is TILE_SIZE)
- * <br>INITIAL_MAX_BOMBS - Initial maximum number of bombs that can be placed by a player (default is 1).
- * <br>INITIAL_RANGE - Initial range of explosions for players (default is 2).
- * <br>INITIAL_CHAR_TIMER_SPEED - Initial interval for updating player's position. The lower the higher speed. Intended, non-linear progression.
- * <br>SPAWN_RATE - Dictates how many Destructible Walls are created (default and suggested is 0.9). 1 means all eligible tiles are filled (except for 2 adjecent to both players' position).
- * <br>POWER_UP_RATE - Sets rate at which powerUps are created after destroying walls (default is 0.2).
+ * Settings (arena and tile size, players, rendering mode) come from the GameConfig passed to the constructor, the Board keeps aliases used for drawing.
+ * <br>The Board turns held keys into per-player input bitmasks, feeds them to Game.step once per GameLoop tick and draws the latest GameSnapshot.
+ * <br>Threads: the GameLoop thread is the only one that changes the Game. The EDT only records keys into the KeyboardInput and reads snapshots.
+ * <br>Keys are read from KeyBindings.FILE.
+ * <br>A match can be recorded to a file (MatchRecorder) or played back from one (MatchReplay). A replay replaces the keyboard as the input source.
+ * <br>Players listed in the bots setting are played by a ThreatBot, asked on the GameLoop thread after the input providers were polled (not in replays).
+ * <br>Only the view area (at most viewColumns x viewRows tiles) is drawn. On arenas larger than that a Viewport camera follows a player
+ * or the midpoint of all players, or the area is split into one Viewport per player (camera setting).
+ * Every draw method only visits the tiles visible in the current Viewport and culls everything else (down to single explosion ray tiles)
+ * before any drawImage call, so the cost of a frame depends on the view size, not on the arena size.
  */
 
 @SuppressWarnings("serial")
-public class Board extends JPanel implements KeyListener {
+public class Board extends JPanel {
+	
+	//Settings (see GameConfig)
+	private final GameConfig config;
+	private final int TILE_SIZE;
+	private final int NUMBER_OF_FREE_COLUMNS;
+	private final int NUMBER_OF_FREE_ROWS;
+	private final int GAP_WIDTH;
 	
-	//Modifiable settings
-	public static final int MOVEMENT_ERROR_MARGIN = 50;
-	public static final int TILE_SIZE = 100; 
-	public static final int NUMBER_OF_FREE_COLUMNS = 8;
-	public static final int NUMBER_OF_FREE_ROWS = 6;
-	public static final int GAP_WIDTH = TILE_SIZE;
-	public static final int INITIAL_MAX_BOMBS = 4;
-	public static final int INITIAL_RANGE = 2;
-	public static final int INITIAL_CHAR_TIMER_SPEED = 8;
-	public static final double SPAWN_RATE = 0;
-	public static final double POWER_UP_RATE = 0.2;
+	//View area and the Viewports inside it (one, or one per player in split-screen). Drawing always goes through the current view.
+	private final int VIEW_WIDTH;
+	private final int VIEW_HEIGHT;
+	private final int DIVIDER = 4; //Space between split-screen views
+	private final Viewport[] viewports;
+	private final boolean prerendered; //Single view showing the whole arena - the background is one pre-rendered image
+	private Viewport view;
 	
-	//Characters
-	public Character p1 = new Character(1, this);
-	public Character p2 = new Character(2, this);
+	//Game model
+	private final Game game;
+	private final int[] inputs;
 	
 	//JFrame reference
 	private MyFrame myFrame;
 	
-	//Used for drawing pillars
-	private Dimension[][] positionsTable = new Dimension[NUMBER_OF_FREE_COLUMNS-1][NUMBER_OF_FREE_ROWS-1];
-	
 	private Timer timer;
-
-	//Explosion set, Destructible walls and PowerUps
-	private TreeSet<Explosion> explosions = new TreeSet<Explosion>(); //Probably should change to a list instead...
-	private Iterator<Explosion> iterator;
-	public DestrWalls dW = new DestrWalls(this);
-	private PowerUp[][] powerUps = new PowerUp[(2*Board.NUMBER_OF_FREE_COLUMNS)-1][(2*Board.NUMBER_OF_FREE_ROWS)-1];
+	private GameLoop loop;
+	private GameCanvas canvas; //Only in active rendering mode
+	private final FrameTimeHistogram frameTimes = new FrameTimeHistogram();
+	
+	//Composed frame for incremental repaint. Only tiles changed since frameTick (and tiles under moving players) are redrawn.
+	private BufferedImage frame;
+	private long frameTick;
+	private int[] framePlayers; // x, y, facing, frame, alive per player as last drawn
+	private boolean[] dirtyTiles;
+	private int[] dirtyList;
+	private final Rectangle frameDirty = new Rectangle();
+	private boolean gameOver = false;
+	
+	//Static arena sprites (shared through the Sprites cache)
+	private Image floor;
+	private Image pillars;
+	private Image wallsUpLeft;
+	private Image wallsUpRight;
+	private Image wallsDownLeft;
+	private Image wallsDownRight;
+	private Image wallsHorizontalUp;
+	private Image wallsHorizontalDown;
+	private Image wallsVerticalLeft;
+	private Image wallsVerticalRight;
 	
-	//Keybinds timers and booleans
-	private Timer wTimer;
-	private Timer sTimer;
-	private Timer aTimer;
-	private Timer dTimer;
-	private Timer gTimer;
-	private Timer upTimer;
-	private Timer downTimer;
-	private Timer rightTimer;
-	private Timer leftTimer;
-	private Timer enterTimer;
+	//Pre-rendered floor, outer walls and pillars. Rebuilt only if the tile size or grid dimensions change.
+	private BufferedImage background;
+	private int backgroundTileSize;
+	private int backgroundColumns;
+	private int backgroundRows;
 	
-	private boolean wRel = true;
-	private boolean sRel = true;
-	private boolean aRel = true;
-	private boolean dRel = true;
-	private boolean gRel = true;
-	private boolean upRel = true;
-	private boolean downRel = true;
-	private boolean rightRel = true;
-	private boolean leftRel = true;
-	private boolean enterRel = true;
+	//Sprites for the model state: avatars [player][facing][frame], bomb frames, wall stages (from TileGrid.WALL), powerUp [type][frame]
+	private final Image[][][] avatars;
+	private Image[] bombImages;
+	private Image[] wallImages;
+	private Image[][] powerUpImages;
 	
+	//Images for the middle tile and vertical/horizontal "arm" tiles of explosions
+	private Image explosionMid;
+	private Image explosionVertical;
+	private Image explosionHorizontal;
 	
+	//Images for last tiles at each end (indexed by Explosion.UP, RIGHT, DOWN, LEFT).
+	private Image[] explosionEnds;
+	
+	//Input: key bindings, key state table (written on the EDT, polled by the GameLoop) and pluggable providers such as gamepads
+	private final KeyBindings bindings;
+	private final KeyboardInput keyboard;
+	private final List<InputProvider> inputProviders = new ArrayList<InputProvider>();
+	private final Bot[] bots; //By player index, null for players not played by a bot
+	
+	//Match log: recorder of this match (null if not recorded) or the replay feeding it (null if played live)
+	private MatchRecorder recorder;
+	private final MatchReplay replay;
+	
+	
+		/**
+		 * Creates a Board with the default settings.
+		 * @param jF takes parent JFrame reference
+		 */
 		public Board(MyFrame jF){
+			this(jF, GameConfig.defaults());
+		}
+		
+		/**
+		 * @param jF takes parent JFrame reference
+		 * @param config Settings of the match and the renderer
+		 */
+		public Board(MyFrame jF, GameConfig config){
+			this(jF, config, null, null);
+		}
+		
+		/**
+		 * Creates a Board recording its match.
+		 * @param jF takes parent JFrame reference
+		 * @param config Settings of the match and the renderer
+		 * @param recordPath File to record the match to, null to not record
+		 */
+		public Board(MyFrame jF, GameConfig config, String recordPath){
+			this(jF, config, recordPath, null);
+		}
+		
+		/**
+		 * Creates a Board playing back a recorded match. The keyboard is not used.
+		 * @param jF takes parent JFrame reference
+		 * @param replay Recorded match, positioned at the first tick
+		 */
+		public Board(MyFrame jF, MatchReplay replay){
+			this(jF, replay.getConfig(), null, replay);
+		}
+		
+		private Board(MyFrame jF, GameConfig config, String recordPath, MatchReplay replay){
+			this.config = config;
+			this.replay = replay;
+			TILE_SIZE = config.getTileSize();
+			NUMBER_OF_FREE_COLUMNS = config.getColumns();
+			NUMBER_OF_FREE_ROWS = config.getRows();
+			GAP_WIDTH = config.getGapWidth();
+			game = new Game(config);
+			TileGrid grid = game.getGrid();
+			VIEW_WIDTH = Math.min(config.getViewColumns(), grid.getColumns())*TILE_SIZE;
+			VIEW_HEIGHT = Math.min(config.getViewRows(), grid.getRows())*TILE_SIZE;
+			viewports = createViewports(grid);
+			view = viewports[0];
+			prerendered = viewports.length == 1 && view.isScrolling() == false;
+			inputs = new int[config.getPlayers()];
+			avatars = new Image[config.getPlayers()][4][3];
+			bindings = KeyBindings.load(KeyBindings.FILE, config.getPlayers());
+			keyboard = new KeyboardInput(bindings);
+			bots = new Bot[config.getPlayers()];
+			for (int p = 0; p < bots.length; p++) {
+				if (config.isBot(p) && replay == null) {
+					bots[p] = new ThreatBot(game.getSeed() ^ (p+1));
+				}
+			}
+			if (recordPath != null) {
+				try {
+					recorder = MatchRecorder.create(recordPath, game.getConfig());
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			loadSprites();
 			initUI(jF);
 		}
 		
@@ -95,910 +195,852 @@ public class Board extends JPanel implements KeyListener {
 		 * @param jF takes parent JFrame reference
 		 * Initializing the UI
 		 * Adding the KeyListener
-		 * Adding Dimensions (it probably should not be the Dimension class I know...) for DestrWalls to use
-		 * Setting the refresh rate to 60fps and 60Hz check rate for explosions (e.g. if player walks into one)
-		 * Initializing the Explosions Set
-		 * (The size of this JPanel automatically scales to the chosen TILE_SIZE and columns/rows number)
+		 * Loading avatar frames and rendering the static background layer
+		 * Setting the refresh rate to 60fps (or adding the GameCanvas in active rendering mode) and starting the GameLoop, which steps the Game model
+		 * (The size of this JPanel automatically scales to the chosen TILE_SIZE and the viewport)
 		 */
 		public void initUI(MyFrame jF){
 						
 			myFrame = jF;
 			
-			setPreferredSize(new Dimension((int)((2*NUMBER_OF_FREE_COLUMNS)+1)*TILE_SIZE + 2*GAP_WIDTH, (int)((2*NUMBER_OF_FREE_ROWS)+1)*TILE_SIZE));
+			setPreferredSize(new Dimension(VIEW_WIDTH + 2*GAP_WIDTH, VIEW_HEIGHT));
 			setDoubleBuffered(true);
 			setFocusable(true);
-			addKeyListener(this);
+			addKeyListener(keyboard);
+			addFocusListener(keyboard);
+			loadInputProviders();
 			
-			for (int i = 0; i < positionsTable.length; i++) {
-				for (int j = 0; j < positionsTable[i].length; j++) {
-					
-					positionsTable[i][j] = new Dimension((i*2*TILE_SIZE)+2*TILE_SIZE+GAP_WIDTH, (j*2*TILE_SIZE)+2*TILE_SIZE);
-				}
+			loadAvatars();
+			if (prerendered) {
+				buildBackground();
 			}
 			
+			if (config.isActiveRendering()) {
+				setLayout(new BorderLayout());
+				canvas = new GameCanvas(this);
+				add(canvas);
+			}
+			else {
+				timer = new Timer(1000/60, new ActionListener() {
+					public void actionPerformed(ActionEvent ae) {
+						if (updateFrame(game.getSnapshot(), getAlpha())) {
+							repaint(frameDirty);
+						}
+					}
+				});
+				timer.start();
+			}
 			
-			timer = new Timer(1000/60, new ActionListener() {
-				public void actionPerformed(ActionEvent ae) {
-					repaint();
-					explosionCheck();
+			loop = new GameLoop(new Runnable() {
+				public void run() {
+					tick();
 				}
 			});
-			timer.start();
+			loop.start();
 						
 		}
 		
 		/**
-		 * 
-		 * @param x Takes the x position of the exploding bomb
-		 * @param y Takes the y position of the exploding bomb
-		 * @param range Takes the player's range
-		 * 
-		 * Method should only be invoked by exploding bombs. Note that the player's range is taken from the bomb not directly from the player.
-		 * This means the range of the explosion is taken from the moment of bomb placement and is not affected by later rangeUp pickups.
+		 * Lays out the views: a single one following the camera target, or for split-screen one per player,
+		 * side by side for two players and in a 2x2 grid for more (a fourth cell without a player stays empty).
 		 */
-		public void newExplosion (int x, int y, int range) {
-			explosions.add(new Explosion(x, y, range, this));
+		private Viewport[] createViewports (TileGrid grid) {
+			if (config.isSplitScreen() == false) {
+				return new Viewport[] {new Viewport(new Rectangle(GAP_WIDTH, 0, VIEW_WIDTH, VIEW_HEIGHT), config.getCameraTarget(), TILE_SIZE, grid)};
+			}
+			int players = config.getPlayers();
+			int columns = 2;
+			int rows = (players > 2) ? 2 : 1;
+			int width = (VIEW_WIDTH - (columns-1)*DIVIDER)/columns;
+			int height = (VIEW_HEIGHT - (rows-1)*DIVIDER)/rows;
+			Viewport[] split = new Viewport[players];
+			for (int p = 0; p < players; p++) {
+				Rectangle screen = new Rectangle(GAP_WIDTH + (p % columns)*(width+DIVIDER), (p / columns)*(height+DIVIDER), width, height);
+				split[p] = new Viewport(screen, p, TILE_SIZE, grid);
+			}
+			return split;
 		}
 		
 		/**
-		 * Pauses the refresh timer and gets rid of the explosion.
-		 * In case of Exceptions the method is set to call itself again.
-		 * There is currently a bug where if 3+ explosions chain together, one may remain on the map.
-		 * Looking for a proper fix.
+		 * Polls every input provider into input bitmasks, lets the bots replace the input of their players and advances the Game by one tick.
+		 * Invoked by the GameLoop thread only.
+		 * Records the tick, or checks it against the replay. Ends the match once the model reports a winner
+		 * (a replay of an aborted match just stops at its last tick).
 		 */
-		public synchronized void endExplosion () {			
-			timer.stop();
-			try {
-				iterator = explosions.iterator();
-				if (iterator.hasNext()) {
-					iterator.next();
-					iterator.remove();	
+		public void tick () {
+			if (replay != null && replay.hasNext() == false) {
+				loop.stop();
+				return;
+			}
+			Arrays.fill(inputs, 0);
+			for (int i = 0; i < inputProviders.size(); i++) {
+				inputProviders.get(i).poll(inputs);
+			}
+			for (int p = 0; p < bots.length; p++) {
+				if (bots[p] != null && game.getPlayers()[p].isAlive()) {
+					inputs[p] = bots[p].nextInput(game, p);
 				}
 			}
-			catch (RuntimeException e) {
-				e.printStackTrace();
-				endExplosion();
+			game.step(inputs);
+			if (recorder != null) {
+				try {
+					recorder.record(game, inputs);
+					if (game.isOver()) {
+						recorder.close(game);
+					}
+				} catch (IOException e) {
+					e.printStackTrace();
+					recorder = null;
+				}
+			}
+			if (game.isOver()) {
+				stopTimer();
+				endGame(game.getWinner());
+			}
+			if (replay != null) {
+				replay.verify(game);
+			}
+		}
+		
+		/**
+		 * Stops the game and cancels every scheduled task. Called when the Board is torn down.
+		 * stopTimer waits for the GameLoop's last tick, so the recording is closed and the game disposed after it.
+		 */
+		public void dispose () {
+			stopTimer();
+			if (recorder != null) {
+				try {
+					recorder.close(game);
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
 			}
-			finally {
-				timer.start();				
+			game.dispose();
+			if (config.isFrameStats()) { //The render thread was stopped by stopTimer
+				System.err.println((config.isActiveRendering() ? "Active" : "Passive") + " rendering: " + frameTimes);
 			}
 		}
 		
+		public KeyboardInput getKeyboard () {
+			return keyboard;
+		}
+		
+		public Game getGame () {
+			return game;
+		}
+		
+		public GameConfig getConfig () {
+			return config;
+		}
+		
 		/**
-		 * Method invoked at refresh rate.
-		 * Checks whether the explosion touches a Player, DestrWall, Bomb or PowerUp.
-		 * If yes, invokes the kill/explode/setNull method from target.
+		 * @return Returns how far (0 to 1) the GameLoop is into the current tick. Used for interpolation.
 		 */
-		public void explosionCheck() {
+		public double getAlpha () {
+			return loop.getAlpha();
+		}
+		
+		/**
+		 * @return Returns the times between presented frames, in either rendering mode.
+		 */
+		public FrameTimeHistogram getFrameTimes () {
+			return frameTimes;
+		}
+		
+		/**
+		 * Registers the keyboard and every InputProvider found by the ServiceLoader, configured with the key bindings properties.
+		 * A replay is the only input source.
+		 */
+		private void loadInputProviders () {
+			if (replay != null) {
+				inputProviders.add(replay);
+				return;
+			}
+			inputProviders.add(keyboard);
 			try {
-				for (Explosion e : explosions) {
-					
-					/** MID CHECK **/
-					if (e.getX() == p1.getCurrentTile().getWidth() && e.getY() == p1.getCurrentTile().getHeight()) {
-						p1.kill();
+				for (InputProvider provider : ServiceLoader.load(InputProvider.class)) {
+					provider.configure(bindings.getProperties());
+					inputProviders.add(provider);
+				}
+			} catch (ServiceConfigurationError e) {
+				e.printStackTrace();
+			}
+		}
+		
+		/**
+		 * Loads the arena, bomb, wall, powerUp and explosion sprites for the configured TILE_SIZE.
+		 */
+		private void loadSprites () {
+			floor = sprite("floor");
+			pillars = sprite("pillars");
+			wallsUpLeft = sprite("wallsUpLeft");
+			wallsUpRight = sprite("wallsUpRight");
+			wallsDownLeft = sprite("wallsDownLeft");
+			wallsDownRight = sprite("wallsDownRight");
+			wallsHorizontalUp = sprite("wallsHorizontalUp");
+			wallsHorizontalDown = sprite("wallsHorizontalDown");
+			wallsVerticalLeft = sprite("wallsVerticalLeft");
+			wallsVerticalRight = sprite("wallsVerticalRight");
+			bombImages = new Image[] {sprite("bomb1"), sprite("bomb2")};
+			wallImages = new Image[] {sprite("destrWalls"), sprite("destrWalls_1"), sprite("destrWalls_2")};
+			powerUpImages = new Image[][] {
+					null,
+					{sprite("rangeUp"), sprite("rangeUp_1")},
+					{sprite("speedUp_1"), sprite("speedUp")},
+					{sprite("bombsUp"), sprite("bombsUp_1")}};
+			explosionMid = sprite("explosionMid");
+			explosionVertical = sprite("explosionVertical");
+			explosionHorizontal = sprite("explosionHorizontal");
+			explosionEnds = new Image[] {sprite("explosionEndUp"), sprite("explosionEndRight"), sprite("explosionEndDown"), sprite("explosionEndLeft")};
+		}
+		
+		private BufferedImage sprite (String name) {
+			return Sprites.get(name, TILE_SIZE);
+		}
+		
+		/**
+		 * Loads avatar frames for all players. Player 2 uses the "_black" set, players 3 and 4 get red and blue tinted copies of the white set.
+		 * Left/right walking only uses two frames.
+		 */
+		private void loadAvatars () {
+			String[] facings = {"Up", "Down", "Left", "Right"};
+			for (int p = 0; p < avatars.length; p++) {
+				String suffix = (p == 1) ? "_black" : "";
+				for (int f = 0; f < facings.length; f++) {
+					avatars[p][f][0] = tint(p, sprite("avatar"+facings[f]+suffix));
+					avatars[p][f][1] = tint(p, sprite("avatar"+facings[f]+"1"+suffix));
+					if (f == Character.FACING_UP || f == Character.FACING_DOWN) {
+						avatars[p][f][2] = tint(p, sprite("avatar"+facings[f]+"2"+suffix));
 					}
-					
-					if (e.getX() == p2.getCurrentTile().getWidth() && e.getY() == p2.getCurrentTile().getHeight()) {
-						p2.kill();
+					else {
+						avatars[p][f][2] = avatars[p][f][1];
 					}
-					
-					leftCheck();
-					upCheck();
-					downCheck();
-					rightCheck();
 				}
 			}
-			catch (ConcurrentModificationException cME) {
-				explosionCheck();
+		}
+		
+		private Image tint (int player, BufferedImage avatar) {
+			if (player < 2) {
+				return avatar;
 			}
+			float[] scales = (player == 2) ? new float[] {1f, 0.45f, 0.45f, 1f} : new float[] {0.45f, 0.6f, 1f, 1f};
+			BufferedImage argb = new BufferedImage(avatar.getWidth(), avatar.getHeight(), BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g = argb.createGraphics();
+			g.drawImage(avatar, 0, 0, null);
+			g.dispose();
+			BufferedImage tinted = Sprites.createImage(avatar.getWidth(), avatar.getHeight(), Transparency.TRANSLUCENT);
+			g = tinted.createGraphics();
+			g.drawImage(new RescaleOp(scales, new float[4], null).filter(argb, null), 0, 0, null);
+			g.dispose();
+			return tinted;
 		}
 			
 		/**
-		 * Main paint method. Invokes methods for paintable objects.
-		 * First draws the Floor.
-		 * Last draws are Characters and Explosions.
+		 * Main paint method of the passive (Swing Timer) rendering mode. Blits the composed frame - Swing clips it to the repainted region.
+		 * In active rendering mode the GameCanvas covers the panel and the frame belongs to the render thread, so nothing is drawn here.
 		 * @param g Graphics context
 		 */
 		@Override
 		public void paintComponent (Graphics g) {
 			
 			super.paintComponent(g);
-			drawFloor(g);
-			drawBombs(g);
-			drawWalls(g);
-			drawPillars(g);
-			drawDestrWalls(g);
-			drawPowerUps(g);
-			drawCharacters(g);
-			drawExplosions(g);
+			if (canvas != null) {
+				return;
+			}
+			if (frame == null) {
+				updateFrame(game.getSnapshot(), getAlpha());
+			}
+			g.drawImage(frame, 0, 0, null);
+			frameTimes.frame(System.nanoTime());
 			
 		}
 		
 		/**
-		 * Draws bombs. Animations are handled by the Bomb class.
-		 * @param g Graphics context
+		 * Brings the composed frame up to date with the snapshot. Redraws everything on the first call or when the size changed,
+		 * a whole view when its camera moved, otherwise only the tiles of each view the model marked as changed since the last update
+		 * plus the tiles under players that moved or changed frame.
+		 * The region that changed is left in frameDirty.
+		 * @param state Snapshot to draw
+		 * @param alpha Fraction of the tick passed since the snapshot was published
+		 * @return Returns true if anything was redrawn.
 		 */
-		public void drawBombs (Graphics g) {
-						
-			for (Bomb b : p1.getBombs()) {
-				g.drawImage(b.getCurrentImage(), b.getX(), b.getY(), null);
+		public boolean updateFrame (GameSnapshot state, double alpha) {
+			
+			TileGrid grid = state.getGrid();
+			int width = getPreferredSize().width;
+			int height = getPreferredSize().height;
+			for (Viewport v : viewports) {
+				v.follow(state, alpha);
+			}
+			
+			if (frame == null || frame.getWidth() != width || frame.getHeight() != height || dirtyTiles.length != grid.getColumns()*grid.getRows()) {
+				BufferedImage composed = Sprites.createImage(width, height, Transparency.OPAQUE);
+				dirtyTiles = new boolean[grid.getColumns()*grid.getRows()];
+				dirtyList = new int[(VIEW_WIDTH/TILE_SIZE+2)*(VIEW_HEIGHT/TILE_SIZE+2)];
+				Graphics2D g = composed.createGraphics();
+				drawFrame(g, state, alpha);
+				g.dispose();
+				recordFrame(state, alpha);
+				frame = composed;
+				frameDirty.setBounds(0, 0, width, height);
+				return true;
 			}
 			
-			for (Bomb b : p2.getBombs()) {
-				g.drawImage(b.getCurrentImage(), b.getX(), b.getY(), null);
+			Graphics2D g = frame.createGraphics();
+			frameDirty.setBounds(0, 0, 0, 0);
+			for (Viewport v : viewports) {
+				view = v;
+				if (v.isMoved()) {
+					drawView(g, state, alpha);
+					addDirty(v.getScreen().x, v.getScreen().y, v.getScreen().width, v.getScreen().height);
+				}
+				else {
+					updateView(g, state, alpha);
+				}
 			}
+			g.dispose();
+			recordFrame(state, alpha);
+			return frameDirty.isEmpty() == false;
 		}
 		
 		/**
-		 * Draws Explosions.
-		 * Contains advanced logic for drawing explosions in range of other explosions.
-		 * 4 for loops for each Explosion are invoked to check all directions.
-		 * Checks for explosions being null.
-		 * @param g Graphics context
+		 * Redraws the changed tiles of the current view (camera did not move).
 		 */
-		public void drawExplosions (Graphics g) {
-			
-			if (explosions != null) {
-				try {
-					for (Explosion e : explosions) {
-						
-						for (int i = 1; i < e.getRange()+1; i++) {
-							
-							if (e.getY()-i*TILE_SIZE < TILE_SIZE) {}
-							else if (((e.getX()-GAP_WIDTH) % (2*TILE_SIZE)) == 0) {}
-							else if (dW.getPositions()[((e.getX()-GAP_WIDTH)/TILE_SIZE)-1][((e.getY()-i*TILE_SIZE)/TILE_SIZE)-1] != null) {
-								i = e.getRange();
-							}
-							else if (powerUps[((e.getX()-GAP_WIDTH)/TILE_SIZE)-1][((e.getY()-i*TILE_SIZE)/TILE_SIZE)-1] != null) {
-								i = e.getRange();
-							}
-							else {
-								
-								boolean canIPaint = true;
-								
-								for (Explosion e1 : explosions) {
-									if (e1.getY() == e.getY()-(i)*TILE_SIZE && e1.getX() == e.getX()) {
-										canIPaint = false;
-										i = e.getRange();
-									}
-									
-									else if (canIPaint) {
-										if (i < e.getRange()) {
-											g.drawImage(e.vert, e.getX(), e.getY()-i*TILE_SIZE, null);							
-										}
-										else {
-											g.drawImage(e.endUp, e.getX(), e.getY()-e.getRange()*TILE_SIZE, null);
-										}
-									}
-								}
-							}
-						}
-						
-						for (int i = 1; i < e.getRange()+1; i++) {
-		
-							if (e.getX()+i*TILE_SIZE > Board.GAP_WIDTH + (2*(Board.NUMBER_OF_FREE_COLUMNS)-1)*Board.TILE_SIZE) {}
-							else if (((e.getY()) % (2*TILE_SIZE)) == 0) {}
-							else if (dW.getPositions()[((e.getX()-GAP_WIDTH+i*TILE_SIZE)/TILE_SIZE)-1][(e.getY()/TILE_SIZE)-1] != null) {
-								i = e.getRange();
-							}
-							else if (powerUps[((e.getX()-GAP_WIDTH+i*TILE_SIZE)/TILE_SIZE)-1][(e.getY()/TILE_SIZE)-1] != null) {
-								i = e.getRange();
-							}
-							else {
-								
-								boolean canIPaint = true;
-								
-								for (Explosion e1 : explosions) {
-									if (e1.getX() == e.getX()+(i)*TILE_SIZE && e1.getY() == e.getY()) {
-										canIPaint = false;
-										i = e.getRange();
-									}
-									
-									else if (canIPaint) {
-										if (i < e.getRange()) {
-											g.drawImage(e.hori, e.getX()+i*TILE_SIZE, e.getY(), null);						
-										}
-										else {
-											g.drawImage(e.endRight, e.getX()+e.getRange()*TILE_SIZE, e.getY(), null);	
-										}
-									}
-								}
-							}
-						}
-						
-						for (int i = 1; i < e.getRange()+1; i++) {
-		
-							if (e.getY()+i*TILE_SIZE > ((2*Board.NUMBER_OF_FREE_ROWS)-1)*Board.TILE_SIZE) {}
-							else if (((e.getX()-GAP_WIDTH) % (2*TILE_SIZE)) == 0) {}
-							else if (dW.getPositions()[((e.getX()-GAP_WIDTH)/TILE_SIZE)-1][((e.getY()+i*TILE_SIZE)/TILE_SIZE)-1] != null) {
-								i = e.getRange();
-							}
-							else if (powerUps[((e.getX()-GAP_WIDTH)/TILE_SIZE)-1][((e.getY()+i*TILE_SIZE)/TILE_SIZE)-1] != null) {
-								i = e.getRange();
-							}
-							else {
-								
-								boolean canIPaint = true;
-								
-								for (Explosion e1 : explosions) {
-									if (e1.getY() == e.getY()+(i)*TILE_SIZE && e1.getX() == e.getX()) {
-										canIPaint = false;
-										i = e.getRange();
-									}
-									
-									else if (canIPaint) {
-										if (i < e.getRange()) {
-											g.drawImage(e.vert, e.getX(), e.getY()+i*TILE_SIZE, null);					
-										}
-										else {
-											g.drawImage(e.endDown, e.getX(), e.getY()+e.getRange()*TILE_SIZE, null);
-										}
-									}
-								}
-							}
-						}
-						
-						for (int i = 1; i < e.getRange()+1; i++) {
-		
-							if (e.getX()-i*TILE_SIZE < Board.GAP_WIDTH + Board.TILE_SIZE) {}
-							else if (((e.getY()) % (2*TILE_SIZE)) == 0) {}
-							else if (dW.getPositions()[(((e.getX()-GAP_WIDTH)-i*TILE_SIZE)/TILE_SIZE)-1][(e.getY()/TILE_SIZE)-1] != null) {
-								i = e.getRange();
-							}
-							else if (powerUps[(((e.getX()-GAP_WIDTH)-i*TILE_SIZE)/TILE_SIZE)-1][(e.getY()/TILE_SIZE)-1] != null) {
-								i = e.getRange();
-							}
-							else {
-								
-								boolean canIPaint = true;
-								
-								for (Explosion e1 : explosions) {
-									if (e1.getX() == e.getX()-(i)*TILE_SIZE && e1.getY() == e.getY()) {
-										canIPaint = false;
-										i = e.getRange();
-									}
-									
-									else if (canIPaint) {
-										if (i < e.getRange()) {
-											g.drawImage(e.hori, e.getX()-i*TILE_SIZE, e.getY(), null);			
-										}
-										else {
-											g.drawImage(e.endLeft, e.getX()-e.getRange()*TILE_SIZE, e.getY(), null);
-										}
-									}
-								}
-							}
-						}
+		private void updateView (Graphics2D g, GameSnapshot state, double alpha) {
+			TileGrid grid = state.getGrid();
+			Rectangle visible = view.getVisible();
+			int dirty = 0;
+			for (int col = visible.x; col < visible.x+visible.width; col++) {
+				for (int row = visible.y; row < visible.y+visible.height; row++) {
+					if (grid.getChangedTick(col, row) > frameTick) {
+						dirty = markDirty(grid, col, row, dirty);
 					}
 				}
-				catch (ConcurrentModificationException cME) {
-					repaint();
+			}
+			for (int p = 0; p < state.getPlayerCount(); p++) {
+				int x = state.getPlayerX(p, alpha);
+				int y = state.getPlayerY(p, alpha);
+				int f = p*5;
+				if (f >= framePlayers.length || x != framePlayers[f] || y != framePlayers[f+1] || state.getPlayerFacing(p) != framePlayers[f+2]
+						|| state.getPlayerFrame(p) != framePlayers[f+3] || (state.isPlayerAlive(p) ? 1 : 0) != framePlayers[f+4]) {
+					if (f < framePlayers.length) {
+						dirty = markArea(grid, framePlayers[f], framePlayers[f+1], dirty);
+					}
+					dirty = markArea(grid, x, y, dirty);
+				}
+			}
+			
+			Rectangle screen = view.getScreen();
+			for (int i = 0; i < dirty; i++) {
+				int col = dirtyList[i] % grid.getColumns();
+				int row = dirtyList[i] / grid.getColumns();
+				dirtyTiles[dirtyList[i]] = false;
+				int x = view.toScreenX(col*TILE_SIZE);
+				int y = view.toScreenY(row*TILE_SIZE);
+				g.setClip(x, y, TILE_SIZE, TILE_SIZE);
+				g.clipRect(screen.x, screen.y, screen.width, screen.height);
+				drawBackground(g, grid, col, row);
+				drawTile(g, grid, col, row);
+				drawOverlays(g, state, alpha, col, row);
+				addDirty(x, y, TILE_SIZE, TILE_SIZE);
+			}
+			g.setClip(null);
+		}
+		
+		/**
+		 * Draws Characters and Explosions on a single tile of the current view, in the order drawView uses (the caller clips to the tile).
+		 * Only players overlapping the tile and explosions whose center or ray covers it are drawn - one check per player and explosion,
+		 * no ray is walked, so the cost of a dirty tile does not grow with the number of ray tiles on screen.
+		 */
+		private void drawOverlays (Graphics g, GameSnapshot state, double alpha, int col, int row) {
+			int tileX = col*TILE_SIZE;
+			int tileY = row*TILE_SIZE;
+			for (int p = 0; p < state.getPlayerCount(); p++) {
+				if (state.isPlayerAlive(p) == false) {
+					continue;
 				}
-				catch (NoSuchElementException nSEE) {
-					repaint();
+				int x = state.getPlayerX(p, alpha);
+				int y = state.getPlayerY(p, alpha);
+				if (Math.abs(x - tileX) < TILE_SIZE && Math.abs(y - tileY) < TILE_SIZE) {
+					g.drawImage(avatars[p][state.getPlayerFacing(p)][state.getPlayerFrame(p)], view.toScreenX(x), view.toScreenY(y), null);
 				}
 			}
 			
-			if (explosions != null) {
-				try {
-					for (Explosion e : explosions) {						
-						g.drawImage(e.mid, e.getX(), e.getY(), null);
-					}
+			boolean center = false;
+			for (int e = 0; e < state.getExplosionCount(); e++) {
+				int eCol = state.getExplosionX(e)/TILE_SIZE;
+				int eRow = state.getExplosionY(e)/TILE_SIZE;
+				int d;
+				int i;
+				if (eCol == col && eRow == row) {
+					center = true;
+					continue;
 				}
-				catch (ConcurrentModificationException cME) {
-					repaint();
+				else if (eRow == row) {
+					d = (col > eCol) ? Explosion.RIGHT : Explosion.LEFT;
+					i = Math.abs(col - eCol);
 				}
-				catch (NoSuchElementException nSEE) {
-					repaint();
+				else if (eCol == col) {
+					d = (row > eRow) ? Explosion.DOWN : Explosion.UP;
+					i = Math.abs(row - eRow);
 				}
+				else {
+					continue;
+				}
+				if (i <= state.getExplosionReach(e, d)) {
+					Image arm = (Explosion.STEP_COL[d] == 0) ? explosionVertical : explosionHorizontal;
+					g.drawImage((i < state.getExplosionRange(e)) ? arm : explosionEnds[d], view.toScreenX(tileX), view.toScreenY(tileY), null);
+				}
+			}
+			if (center) {
+				g.drawImage(explosionMid, view.toScreenX(tileX), view.toScreenY(tileY), null);
 			}
 		}
-				
-		/**
-		 * Draws characters.
-		 * @param g Graphics context
-		 */
-		public void drawCharacters (Graphics g) {
-			g.drawImage(p1.getCurrentAvatar(), p1.getX(), p1.getY(), null);
-			g.drawImage(p2.getCurrentAvatar(), p2.getX(), p2.getY(), null);
+		
+		private void addDirty (int x, int y, int width, int height) {
+			if (frameDirty.isEmpty()) {
+				frameDirty.setBounds(x, y, width, height);
+			}
+			else {
+				frameDirty.add(x, y);
+				frameDirty.add(x+width, y+height);
+			}
+		}
+		
+		private int markDirty (TileGrid grid, int col, int row, int dirty) {
+			if (view.isVisible(col, row) == false) {
+				return dirty;
+			}
+			int i = grid.index(col, row);
+			if (dirtyTiles[i] == false) {
+				dirtyTiles[i] = true;
+				dirtyList[dirty++] = i;
+			}
+			return dirty;
 		}
 		
 		/**
-		 * Draws walls surrounding the arena.
-		 * @param g Graphics context
+		 * Marks every tile overlapped by a TILE_SIZE square at the given model position.
 		 */
-		public void drawWalls (Graphics g) {
-			g.drawImage(new ImageIcon("images/wallsUpLeft_"+TILE_SIZE+".png").getImage(), GAP_WIDTH, 0, null);
-			g.drawImage(new ImageIcon("images/wallsUpRight_"+TILE_SIZE+".png").getImage(), ((2*NUMBER_OF_FREE_COLUMNS)*TILE_SIZE)+GAP_WIDTH, 0, null);
-			g.drawImage(new ImageIcon("images/wallsDownLeft_"+TILE_SIZE+".png").getImage(), GAP_WIDTH, (2*NUMBER_OF_FREE_ROWS)*TILE_SIZE, null);
-			g.drawImage(new ImageIcon("images/wallsDownRight_"+TILE_SIZE+".png").getImage(), ((2*NUMBER_OF_FREE_COLUMNS)*TILE_SIZE)+GAP_WIDTH, (2*NUMBER_OF_FREE_ROWS)*TILE_SIZE, null);
-			
-			for (int i = 1; i < (2*NUMBER_OF_FREE_COLUMNS); i++) {
-				g.drawImage(new ImageIcon("images/wallsHorizontalUp_"+TILE_SIZE+".png").getImage(), (i*TILE_SIZE)+GAP_WIDTH, 0, null);
+		private int markArea (TileGrid grid, int x, int y, int dirty) {
+			for (int col = Math.floorDiv(x, TILE_SIZE); col <= Math.floorDiv(x+TILE_SIZE-1, TILE_SIZE); col++) {
+				for (int row = Math.floorDiv(y, TILE_SIZE); row <= Math.floorDiv(y+TILE_SIZE-1, TILE_SIZE); row++) {
+					dirty = markDirty(grid, col, row, dirty);
+				}
 			}
-			
-			for (int i = 1; i < (2*NUMBER_OF_FREE_COLUMNS); i++) {
-				g.drawImage(new ImageIcon("images/wallsHorizontalDown_"+TILE_SIZE+".png").getImage(), (i*TILE_SIZE)+GAP_WIDTH, (2*NUMBER_OF_FREE_ROWS)*TILE_SIZE, null);
+			return dirty;
+		}
+		
+		private void recordFrame (GameSnapshot state, double alpha) {
+			frameTick = state.getTick();
+			for (Viewport v : viewports) {
+				v.drawn();
 			}
-			
-			for (int i = 1; i < (2*NUMBER_OF_FREE_ROWS); i++) {
-				g.drawImage(new ImageIcon("images/wallsVerticalLeft_"+TILE_SIZE+".png").getImage(), GAP_WIDTH, i*TILE_SIZE, null);
+			if (framePlayers == null || framePlayers.length != state.getPlayerCount()*5) {
+				framePlayers = new int[state.getPlayerCount()*5];
 			}
-			
-			for (int i = 1; i < (2*NUMBER_OF_FREE_ROWS); i++) {
-				g.drawImage(new ImageIcon("images/wallsVerticalRight_"+TILE_SIZE+".png").getImage(), ((2*NUMBER_OF_FREE_COLUMNS)*TILE_SIZE)+GAP_WIDTH, i*TILE_SIZE, null);
+			for (int p = 0; p < state.getPlayerCount(); p++) {
+				framePlayers[p*5] = state.getPlayerX(p, alpha);
+				framePlayers[p*5+1] = state.getPlayerY(p, alpha);
+				framePlayers[p*5+2] = state.getPlayerFacing(p);
+				framePlayers[p*5+3] = state.getPlayerFrame(p);
+				framePlayers[p*5+4] = state.isPlayerAlive(p) ? 1 : 0;
 			}
 		}
 		
 		/**
-		 * Draws floor on the whole arena.
+		 * @return Returns the composed frame kept up to date by updateFrame.
+		 */
+		public BufferedImage getFrame () {
+			return frame;
+		}
+		
+		/**
+		 * Draws a whole frame. Shared by paintComponent and the GameCanvas render thread.
+		 * First draws the background, blitted from a pre-rendered image if a single view shows the whole arena,
+		 * then the views one by one (see drawView).
+		 * Everything is drawn from one GameSnapshot, so a frame never mixes two ticks and never races the GameLoop.
 		 * @param g Graphics context
+		 * @param state Snapshot to draw
+		 * @param alpha Fraction of the tick passed since the snapshot was published, for interpolation
 		 */
-		public void drawFloor (Graphics g) {
-			for (int i = 0; i*TILE_SIZE <= 2*Board.GAP_WIDTH + ((2*Board.NUMBER_OF_FREE_COLUMNS)+1)*Board.TILE_SIZE ; i++) {
-				for (int j = 0; j*TILE_SIZE <= ((2*Board.NUMBER_OF_FREE_ROWS)+1)*Board.TILE_SIZE; j++) {
-					g.drawImage(new ImageIcon("images/floor_"+TILE_SIZE+".png").getImage(), i*TILE_SIZE, j*TILE_SIZE, null);
-					
-				}
+		public void drawFrame (Graphics g, GameSnapshot state, double alpha) {
+			drawBackground(g, state);
+			for (Viewport v : viewports) {
+				view = v;
+				drawView(g, state, alpha);
 			}
 		}
 		
 		/**
-		 * Draws static, non-destructible pillars.
-		 * @param g Graphics context
+		 * Draws the current view, clipped to its area: the background of the visible tiles (unless pre-rendered),
+		 * bombs, walls and powerUps, then Characters and Explosions on top.
 		 */
-		public void drawPillars (Graphics g) {
-			
-			for (int i = 0; i < positionsTable.length; i++) {
-				for (int j = 0; j < positionsTable[i].length; j++) {
-					g.drawImage(new ImageIcon("images/pillars_"+TILE_SIZE+".png").getImage(), (int)positionsTable[i][j].getWidth(), (int)positionsTable[i][j].getHeight(), null);
-					
+		private void drawView (Graphics g, GameSnapshot state, double alpha) {
+			Shape clip = g.getClip();
+			Rectangle screen = view.getScreen();
+			g.clipRect(screen.x, screen.y, screen.width, screen.height);
+			if (prerendered == false) {
+				TileGrid grid = state.getGrid();
+				Rectangle visible = view.getVisible();
+				for (int col = visible.x; col < visible.x+visible.width; col++) {
+					for (int row = visible.y; row < visible.y+visible.height; row++) {
+						drawBackground(g, grid, col, row);
+					}
 				}
 			}
-			
+			drawBombs(g, state);
+			drawDestrWalls(g, state);
+			drawPowerUps(g, state);
+			drawCharacters(g, state, alpha);
+			drawExplosions(g, state);
+			g.setClip(clip);
 		}
 		
 		/**
-		 * Draws destructible walls.
+		 * Draws bombs on the visible tiles of the current view. Animations are handled by the Bomb class.
 		 * @param g Graphics context
+		 * @param state Snapshot to draw
 		 */
-		public void drawDestrWalls (Graphics g) {
+		public void drawBombs (Graphics g, GameSnapshot state) {
 			
-			for (int i = 0; i < dW.getPositions().length-1; i++) {
-				for (int j = 0; j < dW.getPositions()[i].length-1; j++) {
-					if (dW.getPositions()[i][j] != null) {
-						g.drawImage(dW.getImg(i, j), (int)dW.getPositions()[i][j].getWidth(), (int)dW.getPositions()[i][j].getHeight(), null);
+			TileGrid grid = state.getGrid();
+			for (int col = firstVisibleColumn(); col <= lastVisibleColumn(grid); col++) {
+				for (int row = firstVisibleRow(); row <= lastVisibleRow(grid); row++) {
+					if (grid.hasBomb(col, row)) {
+						g.drawImage(bombImages[grid.getBombFrame(col, row)], view.toScreenX(col*TILE_SIZE), view.toScreenY(row*TILE_SIZE), null);
 					}
 				}
-			}			
+			}
 		}
 		
 		/**
-		 * Draws powerUps. 
+		 * Draws Explosions in the current view. Only the ray tiles inside the visible tiles are drawn.
+		 * Rays are drawn from the reach resolved by the Game at detonation, so no collision logic runs while painting.
+		 * Centers are drawn last, on top of any ray passing through them.
 		 * @param g Graphics context
+		 * @param state Snapshot to draw
 		 */
-		public void drawPowerUps (Graphics g) {
+		public void drawExplosions (Graphics g, GameSnapshot state) {
 			
-			for (int i = 0; i < powerUps.length; i++) {
-				for (int j = 0; j < powerUps[i].length; j++) {
-					if (powerUps[i][j] != null) {
-						g.drawImage(powerUps[i][j].getCurrentImg(), powerUps[i][j].getX(), powerUps[i][j].getY(), null);
+			Rectangle visible = view.getVisible();
+			for (int e = 0; e < state.getExplosionCount(); e++) {
+				int col = state.getExplosionX(e)/TILE_SIZE;
+				int row = state.getExplosionY(e)/TILE_SIZE;
+				int range = state.getExplosionRange(e);
+				for (int d = 0; d < 4; d++) {
+					int stepCol = Explosion.STEP_COL[d];
+					int stepRow = Explosion.STEP_ROW[d];
+					//First and last ray tile inside the visible tiles
+					int first = 1;
+					int last = state.getExplosionReach(e, d);
+					if (stepCol == 0) {
+						if (col < visible.x || col >= visible.x+visible.width) {
+							continue;
+						}
+						first = Math.max(first, stepRow*(stepRow > 0 ? visible.y-row : visible.y+visible.height-1-row));
+						last = Math.min(last, stepRow*(stepRow > 0 ? visible.y+visible.height-1-row : visible.y-row));
+					}
+					else {
+						if (row < visible.y || row >= visible.y+visible.height) {
+							continue;
+						}
+						first = Math.max(first, stepCol*(stepCol > 0 ? visible.x-col : visible.x+visible.width-1-col));
+						last = Math.min(last, stepCol*(stepCol > 0 ? visible.x+visible.width-1-col : visible.x-col));
+					}
+					Image arm = (stepCol == 0) ? explosionVertical : explosionHorizontal;
+					for (int i = first; i <= last; i++) {
+						g.drawImage((i < range) ? arm : explosionEnds[d], 
+								view.toScreenX((col+i*stepCol)*TILE_SIZE), view.toScreenY((row+i*stepRow)*TILE_SIZE), null);
 					}
 				}
-			}			
+			}
+			
+			for (int e = 0; e < state.getExplosionCount(); e++) {
+				int x = state.getExplosionX(e);
+				int y = state.getExplosionY(e);
+				if (view.isVisible(x/TILE_SIZE, y/TILE_SIZE)) {
+					g.drawImage(explosionMid, view.toScreenX(x), view.toScreenY(y), null);
+				}
+			}
 		}
 		
 		/**
-		 * Creates new PowerUp instance if called by a destroyed wall.
-		 * @param i Index i used for further reference (e.g. when picked up)
-		 * @param j Index j used for further reference (e.g. when picked up)
-		 * @param x Position x
-		 * @param y Position y
+		 * Draws living characters inside the current view, interpolated between the last two ticks.
+		 * @param g Graphics context
+		 * @param state Snapshot to draw
+		 * @param alpha Fraction of the tick passed since the snapshot was published
 		 */
-		public void newPowerUp (int i, int j, int x, int y) {
-			if (powerUps[i][j] == null) {
-				powerUps[i][j] = new PowerUp(x, y, i, j, this);
+		public void drawCharacters (Graphics g, GameSnapshot state, double alpha) {
+			for (int p = 0; p < state.getPlayerCount(); p++) {
+				if (state.isPlayerAlive(p) == false) {
+					continue;
+				}
+				int x = state.getPlayerX(p, alpha);
+				int y = state.getPlayerY(p, alpha);
+				if (view.isAreaVisible(x, y)) {
+					g.drawImage(avatars[p][state.getPlayerFacing(p)][state.getPlayerFrame(p)], view.toScreenX(x), view.toScreenY(y), null);
+				}
 			}
 		}
 		
 		/**
-		 * Called by Character instance. Collision checked in the Character class. Sets the PowerUp as null after pickup.
-		 * @param i Index i for identification of proper instance.
-		 * @param j Index j for identification of proper instance.
+		 * Draws the static background outside of the views' tiles. If a single view shows the whole arena it is a single blit of
+		 * the pre-rendered layer (rebuilt first if the arena size has changed). Otherwise the gaps get floor and the space
+		 * between split-screen views is filled black - the views draw the background of their own tiles.
+		 * @param g Graphics context
+		 * @param state Snapshot to draw
 		 */
-		public void powerUpPickUp (int i, int j) {
-			powerUps[i][j] = null;
+		public void drawBackground (Graphics g, GameSnapshot state) {
+			if (prerendered) {
+				drawBackground(g, state.getGrid(), 0, 0);
+				return;
+			}
+			Shape clip = g.getClip();
+			g.clipRect(0, 0, GAP_WIDTH, VIEW_HEIGHT);
+			drawFloor(g, 0, 0, GAP_WIDTH, VIEW_HEIGHT);
+			g.setClip(clip);
+			g.clipRect(GAP_WIDTH+VIEW_WIDTH, 0, GAP_WIDTH, VIEW_HEIGHT);
+			drawFloor(g, GAP_WIDTH+VIEW_WIDTH, 0, GAP_WIDTH, VIEW_HEIGHT);
+			g.setClip(clip);
+			if (viewports.length > 1) {
+				g.setColor(Color.BLACK);
+				g.fillRect(GAP_WIDTH, 0, VIEW_WIDTH, VIEW_HEIGHT);
+			}
 		}
-				
+		
 		/**
-		 * Keybindings. WSAD/Directional arrows for Player 1/2 movement. G/Enter for Player 1/2 bomb placement.
-		 * For movement - booleans control movement (set true on press, set false on release). 
-		 * Coded with booleans for smooth movement.
-		 * <br>Special key - SPACE - clears map of explosions. Used for debugging. Should be removed for final release.
+		 * Draws the background of a single tile of the current view: a blit of the pre-rendered layer (clipped by the caller) if it is used,
+		 * otherwise the floor plus the outer wall or pillar of the tile.
 		 */
-		@Override
-		public void keyPressed(KeyEvent e) {
-			
-			switch(e.getKeyCode()) {
-			
-			case KeyEvent.VK_W:
-				if (wRel == true) {
-					wRel = false;
-					ActionListener go = new ActionListener() {
-						public void actionPerformed(ActionEvent ae) {
-							p1.moveUp();
-						}
-					};
-				wTimer = new Timer (p1.getCharTimerSpeed(), go);
-				wTimer.start();
-				}
-	        	break;
-			case KeyEvent.VK_S:
-				if (sRel == true) {
-					sRel = false;
-					ActionListener go = new ActionListener() {
-						public void actionPerformed(ActionEvent ae) {
-							p1.moveDown();
-						}
-					};
-				sTimer = new Timer (p1.getCharTimerSpeed(), go);
-				sTimer.start();
-				}
-				break;
-			case KeyEvent.VK_A:
-				if (aRel == true) {
-					aRel = false;
-					ActionListener go = new ActionListener() {
-						public void actionPerformed(ActionEvent ae) {
-							p1.moveLeft();
-						}
-					};
-				aTimer = new Timer (p1.getCharTimerSpeed(), go);
-				aTimer.start();
-				}	        	
-				break;
-			case KeyEvent.VK_D:
-				if (dRel == true) {
-					dRel = false;
-					ActionListener go = new ActionListener() {
-						public void actionPerformed(ActionEvent ae) {
-							p1.moveRight();
-						}
-					};
-				dTimer = new Timer (p1.getCharTimerSpeed(), go);
-				dTimer.start();
-				}
-	        	break;
-	        case KeyEvent.VK_DOWN:
-	        	if (downRel == true) {
-					downRel = false;
-					ActionListener go = new ActionListener() {
-						public void actionPerformed(ActionEvent ae) {
-							p2.moveDown();
-						}
-					};
-				downTimer = new Timer (p2.getCharTimerSpeed(), go);
-				downTimer.start();
-				}
-	        	break;
-	        case KeyEvent.VK_UP: 
-	        	if (upRel == true) {
-					upRel = false;
-					ActionListener go = new ActionListener() {
-						public void actionPerformed(ActionEvent ae) {
-							p2.moveUp();
-						}
-					};
-				upTimer = new Timer (p2.getCharTimerSpeed(), go);
-				upTimer.start();
-				}	        	
-	        	break;
-	        case KeyEvent.VK_RIGHT:
-	        	if (rightRel == true) {
-					rightRel = false;
-					ActionListener go = new ActionListener() {
-						public void actionPerformed(ActionEvent ae) {
-							p2.moveRight();
-						}
-					};
-				rightTimer = new Timer (p2.getCharTimerSpeed(), go);
-				rightTimer.start();
-				}
-	        	break;
-	        case KeyEvent.VK_LEFT:
-	        	if (leftRel == true) {
-					leftRel = false;
-					ActionListener go = new ActionListener() {
-						public void actionPerformed(ActionEvent ae) {
-							p2.moveLeft();
-						}
-					};
-				leftTimer = new Timer (p2.getCharTimerSpeed(), go);
-				leftTimer.start();
-				}
-	        	break;
-	        case KeyEvent.VK_G:
-	        	if (gRel == true) {
-					gRel = false;
-					ActionListener bomb = new ActionListener() {
-						public void actionPerformed(ActionEvent ae) {
-							p1.placeBomb();
-						}
-					};
-				gTimer = new Timer (1000/60, bomb);
-				gTimer.start();
-				}
-	        	break;
-	        case KeyEvent.VK_ENTER:
-	        	if (enterRel == true) {
-					enterRel = false;
-					ActionListener bomb = new ActionListener() {
-						public void actionPerformed(ActionEvent ae) {
-							p2.placeBomb();
-						}
-					};
-				enterTimer = new Timer (1000/60, bomb);
-				enterTimer.start();
-				}
-	        	break;
-	        	
-	        case KeyEvent.VK_SPACE:
-				try {
-					endExplosion();
-				}
-				catch (ConcurrentModificationException cME) {
-					endExplosion();
+		private void drawBackground (Graphics g, TileGrid grid, int col, int row) {
+			if (prerendered) {
+				if (background == null || backgroundTileSize != TILE_SIZE || backgroundColumns != NUMBER_OF_FREE_COLUMNS || backgroundRows != NUMBER_OF_FREE_ROWS) {
+					buildBackground();
 				}
-	        	break;
-	        default:
-	        	break;
+				g.drawImage(background, 0, 0, null);
+				return;
+			}
+			int x = view.toScreenX(col*TILE_SIZE);
+			int y = view.toScreenY(row*TILE_SIZE);
+			g.drawImage(floor, x, y, null);
+			int terrain = grid.getTerrain(col, row);
+			if (terrain == TileGrid.PILLAR) {
+				g.drawImage(pillars, x, y, null);
+			}
+			else if (terrain == TileGrid.OUTER_WALL) {
+				g.drawImage(outerWall(grid, col, row), x, y, null);
 			}
 		}
-
+		
 		/**
-		 * Sets booleans false on movement key release. See keyPressed documentation for further information.
+		 * @return Returns the outer wall image for the given border tile.
 		 */
-		@Override
-		public void keyReleased(KeyEvent e) {
-			
-			switch(e.getKeyCode()) {
-			
-			case KeyEvent.VK_W:
-				wTimer.stop();
-				wRel = true;
-				p1.stopTimerUp();
-				break;
-			case KeyEvent.VK_S:
-				sTimer.stop();
-				sRel = true;
-				p1.stopTimerDown();
-				break;
-			case KeyEvent.VK_A:
-				aTimer.stop();
-				aRel = true;
-				p1.stopTimerLeft();
-				break;
-			case KeyEvent.VK_D:
-				dTimer.stop();
-				dRel = true;
-				p1.stopTimerRight();
-	        	break;
-	        case KeyEvent.VK_DOWN:
-	        	downTimer.stop();
-				downRel = true;
-				p2.stopTimerDown();
-	        	break;
-	        case KeyEvent.VK_UP: 
-	        	upTimer.stop();
-				upRel = true;
-				p2.stopTimerUp();
-	        	break;
-	        case KeyEvent.VK_RIGHT:
-	        	rightTimer.stop();
-				rightRel = true;
-				p2.stopTimerRight();
-	        	break;
-	        case KeyEvent.VK_LEFT:
-	        	leftTimer.stop();
-				leftRel = true;
-				p2.stopTimerLeft();
-	        	break;
-	        case KeyEvent.VK_G:
-	        	gTimer.stop();
-				gRel = true;
-	        	break;
-	        case KeyEvent.VK_ENTER:
-	        	enterTimer.stop();
-				enterRel = true;
-	        	break;
-	        default:
-	        	break;
+		private Image outerWall (TileGrid grid, int col, int row) {
+			boolean left = col == 0;
+			boolean right = col == grid.getColumns()-1;
+			if (row == 0) {
+				return left ? wallsUpLeft : (right ? wallsUpRight : wallsHorizontalUp);
 			}
-			
+			if (row == grid.getRows()-1) {
+				return left ? wallsDownLeft : (right ? wallsDownRight : wallsHorizontalDown);
+			}
+			return left ? wallsVerticalLeft : wallsVerticalRight;
 		}
-
+		
 		/**
-		 * Not used.
+		 * Composites floor, outer walls and pillars of the whole arena into an off-screen image. These never change during a match.
+		 * Only used when a single view shows the whole arena.
 		 */
-		@Override
-		public void keyTyped(KeyEvent arg0) {}
-		
-		
-		public boolean getWRel () {
-			return wRel;
-		}
-		
-		public boolean getSRel () {
-			return sRel;
-		}
-		
-		public boolean getDRel () {
-			return dRel;
-		}
-		
-		public boolean getARel () {
-			return aRel;
-		}
-
-		public boolean getUpRel () {
-			return upRel;
-		}
-
-		public boolean getDownRel () {
-			return downRel;
-		}
-
-		public boolean getRightRel () {
-			return rightRel;
-		}
-
-		public boolean getLeftRel () {
-			return leftRel;
+		private void buildBackground () {
+			background = Sprites.createImage(((2*NUMBER_OF_FREE_COLUMNS)+1)*TILE_SIZE + 2*GAP_WIDTH, ((2*NUMBER_OF_FREE_ROWS)+1)*TILE_SIZE, Transparency.OPAQUE);
+			Graphics2D g = background.createGraphics();
+			drawFloor(g, 0, 0, background.getWidth(), background.getHeight());
+			drawWalls(g);
+			drawPillars(g);
+			g.dispose();
+			backgroundTileSize = TILE_SIZE;
+			backgroundColumns = NUMBER_OF_FREE_COLUMNS;
+			backgroundRows = NUMBER_OF_FREE_ROWS;
 		}
 		
 		/**
-		 * Ends the game on player kill. Currently no logic for draws (win for player 2).
-		 * Invokes the playAgain method of the JFrame and passs the winner information.
-		 * @param playerNo Takes killed player number to determine who won.
+		 * Draws walls surrounding the arena.
+		 * @param g Graphics context
 		 */
-		public void endGame (int playerNo) {
-			int winner;
-			if (playerNo == 1) {
-				winner = 2;
+		public void drawWalls (Graphics g) {
+			g.drawImage(wallsUpLeft, GAP_WIDTH, 0, null);
+			g.drawImage(wallsUpRight, ((2*NUMBER_OF_FREE_COLUMNS)*TILE_SIZE)+GAP_WIDTH, 0, null);
+			g.drawImage(wallsDownLeft, GAP_WIDTH, (2*NUMBER_OF_FREE_ROWS)*TILE_SIZE, null);
+			g.drawImage(wallsDownRight, ((2*NUMBER_OF_FREE_COLUMNS)*TILE_SIZE)+GAP_WIDTH, (2*NUMBER_OF_FREE_ROWS)*TILE_SIZE, null);
+			
+			for (int i = 1; i < (2*NUMBER_OF_FREE_COLUMNS); i++) {
+				g.drawImage(wallsHorizontalUp, (i*TILE_SIZE)+GAP_WIDTH, 0, null);
 			}
-			else {
-				winner = 1;
+			
+			for (int i = 1; i < (2*NUMBER_OF_FREE_COLUMNS); i++) {
+				g.drawImage(wallsHorizontalDown, (i*TILE_SIZE)+GAP_WIDTH, (2*NUMBER_OF_FREE_ROWS)*TILE_SIZE, null);
+			}
+			
+			for (int i = 1; i < (2*NUMBER_OF_FREE_ROWS); i++) {
+				g.drawImage(wallsVerticalLeft, GAP_WIDTH, i*TILE_SIZE, null);
+			}
+			
+			for (int i = 1; i < (2*NUMBER_OF_FREE_ROWS); i++) {
+				g.drawImage(wallsVerticalRight, ((2*NUMBER_OF_FREE_COLUMNS)*TILE_SIZE)+GAP_WIDTH, i*TILE_SIZE, null);
 			}
-			myFrame.playAgain(winner);
 		}
 		
 		/**
-		 * Stops repaint and explosionCheck mehtods. Used by other classes to get access to the explosion set.
+		 * Draws floor tiles covering the given screen area, aligned to the top left corner of the panel.
+		 * @param g Graphics context
+		 * @param x Left edge of the area
+		 * @param y Top edge of the area
+		 * @param width Width of the area
+		 * @param height Height of the area
 		 */
-		public void stopTimer () {
-			timer.stop();
-		}
-		
-		public PowerUp[][] getPowerUps () {
-			return powerUps;
+		public void drawFloor (Graphics g, int x, int y, int width, int height) {
+			for (int i = x/TILE_SIZE; i*TILE_SIZE <= x+width; i++) {
+				for (int j = y/TILE_SIZE; j*TILE_SIZE <= y+height; j++) {
+					g.drawImage(floor, i*TILE_SIZE, j*TILE_SIZE, null);
+					
+				}
+			}
 		}
 		
-		
 		/**
-		 * Checks whether the explosion has collided with anything on the left. Invokes respective kill methods.
-		 * Used by the explosionCheck method.
+		 * Draws static, non-destructible pillars.
+		 * @param g Graphics context
 		 */
-		public void leftCheck () {
-			try {
-				for (Explosion e : explosions) {
-					/** LEFT CHECK **/
-					for (int i = 1; i < e.getRange()+1; i++) {
-						
-						for (Bomb b: p1.getBombs()) {
-							if ((e.getX()-(i*TILE_SIZE)) == b.getX() && e.getY() == b.getY() && ((e.getY()) % (2*TILE_SIZE)) != 0) {
-								b.boom();
-								break;
-							}
-						}
-						
-						for (Bomb b: p2.getBombs()) {
-							if ((e.getX()-(i*TILE_SIZE)) == b.getX() && e.getY() == b.getY() && ((e.getY()) % (2*TILE_SIZE)) != 0) {
-								b.boom();
-								break;
-							}
-						}
-						
-						
-						if (e.getX()-i*TILE_SIZE < Board.GAP_WIDTH + Board.TILE_SIZE) {}
-						else if (((e.getY()) % (2*TILE_SIZE)) == 0) {}
-						else if (dW.getPositions()[(((e.getX()-GAP_WIDTH)-i*TILE_SIZE)/TILE_SIZE)-1][(e.getY()/TILE_SIZE)-1] != null) {
-							dW.setPositionNull((((e.getX()-GAP_WIDTH)-i*TILE_SIZE)/TILE_SIZE)-1, (e.getY()/TILE_SIZE)-1);
-							i = e.getRange();
-						}
-						else if (powerUps[(((e.getX()-GAP_WIDTH)-i*TILE_SIZE)/TILE_SIZE)-1][(e.getY()/TILE_SIZE)-1] != null) {
-							powerUps[(((e.getX()-GAP_WIDTH)-i*TILE_SIZE)/TILE_SIZE)-1][(e.getY()/TILE_SIZE)-1].burn();
-							i = e.getRange();
-						}
-						else if ((e.getX()-(i*TILE_SIZE)) == p1.getCurrentTile().getWidth() && e.getY() == p1.getCurrentTile().getHeight() && (e.getX()-(i*TILE_SIZE)) == p2.getCurrentTile().getWidth() && e.getY() == p2.getCurrentTile().getHeight()) {
-							p1.kill();
-							// draw?
-						}
-						
-						else if ((e.getX()-(i*TILE_SIZE)) == p1.getCurrentTile().getWidth() && e.getY() == p1.getCurrentTile().getHeight()) {
-							p1.kill();
-						}
-						
-						else if ((e.getX()-(i*TILE_SIZE)) == p2.getCurrentTile().getWidth() && e.getY() == p2.getCurrentTile().getHeight()) {
-							p2.kill();
-						}
+		public void drawPillars (Graphics g) {
+			
+			TileGrid grid = game.getGrid();
+			for (int col = 0; col < grid.getColumns(); col++) {
+				for (int row = 0; row < grid.getRows(); row++) {
+					if (grid.getTerrain(col, row) == TileGrid.PILLAR) {
+						g.drawImage(pillars, GAP_WIDTH+col*TILE_SIZE, row*TILE_SIZE, null);
 					}
 				}
 			}
-			catch (ConcurrentModificationException cME) {
-				cME.printStackTrace();
-				leftCheck();
-			}
+			
 		}
 		
 		/**
-		 * Checks whether the explosion has collided with anything down. Invokes respective kill methods.
-		 * Used by the explosionCheck method.
+		 * Draws the bomb, destructible wall and powerUp of a single tile, in the same order as a full frame.
+		 * @param g Graphics context
+		 * @param grid Grid of the drawn snapshot
+		 * @param col Column of the tile
+		 * @param row Row of the tile
 		 */
-		public void downCheck () {
-			try {
-				for (Explosion e : explosions) {
-					/** DOWN CHECK **/
-					for (int i = 1; i < e.getRange()+1; i++) {
-						
-						for (Bomb b: p1.getBombs()) {
-							if (e.getX() == b.getX() && (e.getY()+(i*TILE_SIZE)) == b.getY() && ((e.getX()-GAP_WIDTH) % (2*TILE_SIZE)) != 0) {
-								b.boom();
-								break;
-							}
-						}
-						
-						for (Bomb b: p2.getBombs()) {
-							if (e.getX() == b.getX() && (e.getY()+(i*TILE_SIZE)) == b.getY() && ((e.getX()-GAP_WIDTH) % (2*TILE_SIZE)) != 0) {
-								b.boom();
-								break;
-							}
-						}
-						
-						
-						if (e.getY()+i*TILE_SIZE > (((2*Board.NUMBER_OF_FREE_ROWS)-1)*Board.TILE_SIZE)) {}
-						else if (((e.getX()-GAP_WIDTH) % (2*TILE_SIZE)) == 0) {}
-						else if (dW.getPositions()[((e.getX()-GAP_WIDTH)/TILE_SIZE)-1][((e.getY()+(i*TILE_SIZE))/TILE_SIZE)-1] != null) {
-							dW.setPositionNull(((e.getX()-GAP_WIDTH)/TILE_SIZE)-1, ((e.getY()+(i*TILE_SIZE))/TILE_SIZE)-1);
-							i = e.getRange();
-						}
-						else if (powerUps[((e.getX()-GAP_WIDTH)/TILE_SIZE)-1][((e.getY()+(i*TILE_SIZE))/TILE_SIZE)-1] != null) {
-							powerUps[((e.getX()-GAP_WIDTH)/TILE_SIZE)-1][((e.getY()+(i*TILE_SIZE))/TILE_SIZE)-1].burn();
-							i = e.getRange();
-						}
-						else if (e.getX() == p1.getCurrentTile().getWidth() && (e.getY()+(i*TILE_SIZE)) == p1.getCurrentTile().getHeight() && e.getX() == p2.getCurrentTile().getWidth() && (e.getY()+(i*TILE_SIZE)) == p2.getCurrentTile().getHeight()) {
-							p1.kill();
-							//draw?
-						}
-						else if (e.getX() == p1.getCurrentTile().getWidth() && (e.getY()+(i*TILE_SIZE)) == p1.getCurrentTile().getHeight()) {
-							p1.kill();
-						}
-						else if (e.getX() == p2.getCurrentTile().getWidth() && (e.getY()+(i*TILE_SIZE)) == p2.getCurrentTile().getHeight()) {
-							p2.kill();
-						}
-					}
-				}
+		private void drawTile (Graphics g, TileGrid grid, int col, int row) {
+			int x = view.toScreenX(col*TILE_SIZE);
+			int y = view.toScreenY(row*TILE_SIZE);
+			if (grid.hasBomb(col, row)) {
+				g.drawImage(bombImages[grid.getBombFrame(col, row)], x, y, null);
+			}
+			if (grid.isWall(col, row)) {
+				g.drawImage(wallImages[grid.getTerrain(col, row)-TileGrid.WALL], x, y, null);
 			}
-			catch (ConcurrentModificationException cME) {
-				cME.printStackTrace();
-				downCheck();
+			int type = grid.getPowerUp(col, row);
+			int powerUpFrame = grid.getPowerUpFrame(col, row);
+			if (type != 0 && powerUpFrame >= 0 && powerUpFrame < powerUpImages[type].length) {
+				g.drawImage(powerUpImages[type][powerUpFrame], x, y, null);
 			}
 		}
 		
 		/**
-		 * Checks whether the explosion has collided with anything up. Invokes respective kill methods.
-		 * Used by the explosionCheck method.
+		 * Draws destructible walls on the visible tiles of the current view.
+		 * @param g Graphics context
+		 * @param state Snapshot to draw
 		 */
-		public void upCheck () {
-			try {
-				for (Explosion e : explosions) {
-					/** UP CHECK **/
-					for (int i = 1; i < e.getRange()+1; i++) {
-						
-						for (Bomb b: p1.getBombs()) {
-							if (e.getX() == b.getX() && (e.getY()-(i*TILE_SIZE)) == b.getY() && ((e.getX()-GAP_WIDTH) % (2*TILE_SIZE)) != 0) {
-								b.boom();
-								break;
-							}
-						}
-						
-						for (Bomb b: p2.getBombs()) {
-							if (e.getX() == b.getX() && (e.getY()-(i*TILE_SIZE)) == b.getY() && ((e.getX()-GAP_WIDTH) % (2*TILE_SIZE)) != 0) {
-								b.boom();
-								break;
-							}
-						}
-						
-						
-						if (e.getY()-i*TILE_SIZE < TILE_SIZE) {}
-						else if (((e.getX()-GAP_WIDTH) % (2*TILE_SIZE)) == 0) {}
-						else if (dW.getPositions()[((e.getX()-GAP_WIDTH)/TILE_SIZE)-1][((e.getY()-i*TILE_SIZE)/TILE_SIZE)-1] != null) {
-							dW.setPositionNull(((e.getX()-GAP_WIDTH)/TILE_SIZE)-1, ((e.getY()-i*TILE_SIZE)/TILE_SIZE)-1);
-							i = e.getRange();
-						}
-						else if (powerUps[((e.getX()-GAP_WIDTH)/TILE_SIZE)-1][((e.getY()-i*TILE_SIZE)/TILE_SIZE)-1] != null) {
-							powerUps[((e.getX()-GAP_WIDTH)/TILE_SIZE)-1][((e.getY()-i*TILE_SIZE)/TILE_SIZE)-1].burn();
-							i = e.getRange();
-						}
-						else if (e.getX() == p1.getCurrentTile().getWidth() && (e.getY()-(i*TILE_SIZE)) == p1.getCurrentTile().getHeight() && e.getX() == p2.getCurrentTile().getWidth() && (e.getY()-(i*TILE_SIZE)) == p2.getCurrentTile().getHeight()) {
-							p1.kill();
-							//draw?
-						}
-						else if (e.getX() == p1.getCurrentTile().getWidth() && (e.getY()-(i*TILE_SIZE)) == p1.getCurrentTile().getHeight()) {
-							p1.kill();
-						}
-						else if (e.getX() == p2.getCurrentTile().getWidth() && (e.getY()-(i*TILE_SIZE)) == p2.getCurrentTile().getHeight()) {
-							p2.kill();
-						}
+		public void drawDestrWalls (Graphics g, GameSnapshot state) {
+			
+			TileGrid grid = state.getGrid();
+			for (int col = firstVisibleColumn(); col <= lastVisibleColumn(grid); col++) {
+				for (int row = firstVisibleRow(); row <= lastVisibleRow(grid); row++) {
+					if (grid.isWall(col, row)) {
+						g.drawImage(wallImages[grid.getTerrain(col, row)-TileGrid.WALL], view.toScreenX(col*TILE_SIZE), view.toScreenY(row*TILE_SIZE), null);
 					}
 				}
-			}
-			catch (ConcurrentModificationException cME) {
-				cME.printStackTrace();
-				upCheck();
-			}
+			}			
 		}
 		
 		/**
-		 * Checks whether the explosion has collided with anything on the right. Invokes respective kill methods.
-		 * Used by the explosionCheck method.
+		 * Draws powerUps on the visible tiles of the current view. Frames without an image in the powerUp table are not drawn (burning, no images yet).
+		 * @param g Graphics context
+		 * @param state Snapshot to draw
 		 */
-		public void rightCheck () {
-			try {
-				for (Explosion e : explosions) {
-					/** RIGHT CHECK **/
-					for (int i = 1; i < e.getRange()+1; i++) {
-						
-						for (Bomb b: p1.getBombs()) {
-							if ((e.getX()+(i*TILE_SIZE)) == b.getX() && e.getY() == b.getY() && ((e.getY()) % (2*TILE_SIZE)) != 0) {
-								b.boom();
-								break;
-							}
-						}
-						
-						for (Bomb b: p2.getBombs()) {
-							if ((e.getX()+(i*TILE_SIZE)) == b.getX() && e.getY() == b.getY() && ((e.getY()) % (2*TILE_SIZE)) != 0) {
-								b.boom();
-								break;
-							}
-						}
-						
-						
-						if (e.getX()+(i*TILE_SIZE) > (Board.GAP_WIDTH + (2*(Board.NUMBER_OF_FREE_COLUMNS)-1)*Board.TILE_SIZE)) {}
-						else if (((e.getY()) % (2*TILE_SIZE)) == 0) {}
-						else if (dW.getPositions()[(((e.getX()-GAP_WIDTH)+(i*TILE_SIZE))/TILE_SIZE)-1][(e.getY()/TILE_SIZE)-1] != null) {
-							dW.setPositionNull((((e.getX()-GAP_WIDTH)+(i*TILE_SIZE))/TILE_SIZE)-1, (e.getY()/TILE_SIZE)-1);
-							i = e.getRange();
-						}
-						else if (powerUps[(((e.getX()-GAP_WIDTH)+(i*TILE_SIZE))/TILE_SIZE)-1][(e.getY()/TILE_SIZE)-1] != null) {
-							powerUps[(((e.getX()-GAP_WIDTH)+(i*TILE_SIZE))/TILE_SIZE)-1][(e.getY()/TILE_SIZE)-1].burn();
-							i = e.getRange();
-						}
-						else if ((e.getX()+(i*TILE_SIZE)) == p1.getCurrentTile().getWidth() && e.getY() == p1.getCurrentTile().getHeight() && (e.getX()+(i*TILE_SIZE)) == p2.getCurrentTile().getWidth() && e.getY() == p2.getCurrentTile().getHeight()) {
-							p1.kill();
-							// draw?
-						}
-						else if ((e.getX()+(i*TILE_SIZE)) == p1.getCurrentTile().getWidth() && e.getY() == p1.getCurrentTile().getHeight()) {
-							p1.kill();
-						}
-						else if ((e.getX()+(i*TILE_SIZE)) == p2.getCurrentTile().getWidth() && e.getY() == p2.getCurrentTile().getHeight()) {
-							p2.kill();
-						}
+		public void drawPowerUps (Graphics g, GameSnapshot state) {
+			
+			TileGrid grid = state.getGrid();
+			for (int col = firstVisibleColumn(); col <= lastVisibleColumn(grid); col++) {
+				for (int row = firstVisibleRow(); row <= lastVisibleRow(grid); row++) {
+					int type = grid.getPowerUp(col, row);
+					int frame = grid.getPowerUpFrame(col, row);
+					if (type != 0 && frame >= 0 && frame < powerUpImages[type].length) {
+						g.drawImage(powerUpImages[type][frame], view.toScreenX(col*TILE_SIZE), view.toScreenY(row*TILE_SIZE), null);
 					}
 				}
+			}			
+		}
+		
+		//Visible free tiles of the current view (outer walls excluded)
+		private int firstVisibleColumn () {
+			return Math.max(1, view.getVisible().x);
+		}
+		
+		private int lastVisibleColumn (TileGrid grid) {
+			return Math.min(grid.getColumns()-2, view.getVisible().x+view.getVisible().width-1);
+		}
+		
+		private int firstVisibleRow () {
+			return Math.max(1, view.getVisible().y);
+		}
+		
+		private int lastVisibleRow (TileGrid grid) {
+			return Math.min(grid.getRows()-2, view.getVisible().y+view.getVisible().height-1);
+		}
+		
+		/**
+		 * @return Returns the visible tiles (first column and row, number of columns and rows) of the first view as of the last frame.
+		 */
+		public Rectangle getVisibleTiles () {
+			return new Rectangle(viewports[0].getVisible());
+		}
+
+		/**
+		 * @return Returns the views (one, or one per player in split-screen). Cameras are moved by updateFrame.
+		 */
+		public Viewport[] getViewports () {
+			return viewports;
+		}
+				
+		/**
+		 * Invokes the playAgain method of the JFrame on the EDT and passes the winner information. Only the first call counts.
+		 * @param winner Number of the player who won.
+		 */
+		public void endGame (int winner) {
+			if (gameOver) {
+				return;
+			}
+			gameOver = true;
+			EventQueue.invokeLater(new Runnable() {
+				public void run() {
+					myFrame.playAgain(winner);
+				}
+			});
+		}
+		
+		/**
+		 * Stops repaint (or the render thread) and the GameLoop. Called when the game ends.
+		 */
+		public void stopTimer () {
+			if (timer != null) {
+				timer.stop();
 			}
-			catch (ConcurrentModificationException cME) {
-				cME.printStackTrace();
-				rightCheck();
+			if (canvas != null) {
+				canvas.stop();
 			}
+			loop.stop();
 		}
-}
\ No newline at end of file
+}
@@ -1,85 +1,98 @@
 package com.ducksonflame.dynablaster;
-import java.awt.Image;
-
-import javax.swing.ImageIcon;
-import javax.swing.JComponent;
-
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * Bomb class used for creating Bomb instances.
  * Separates bombs of player 1 and 2 (to control max bomb limit).
- * Implements Comparable to store in Board's sets.
- * <br>Contains modifiable settings:
- * <br>CHANGE_DELAY - Controls animation speed (default is 500).
- * <br>BOOM_DELAY - Controls explosion delay after placement (default is 1500).
- * <br><br>
- * 
- * 
+ * Implements Comparable (by fuse tick, then id) - the order in which the Game resolves detonations. Ids are handed out by the Game, so matches do not share state.
+ * <br>Settings come from the game's GameConfig:
+ * <br>CHANGE_DELAY - Controls animation speed (bombChangeDelay, default is 500).
+ * <br>FUSE_CHANGES - The bomb explodes on this image change (bombFuse / bombChangeDelay, default is 6).
+ * <br>The fuse runs as a task on the game's TickScheduler, the animation (Animator.BOMB clip) on the game's Animator.
+ * The animation frame is mirrored into the game's TileGrid for the renderer.
+ * <br>Bombs are pooled by the Game: an instance (with its task and animation) is created once and placed again after it exploded.
  */
-@SuppressWarnings("serial")
-public class Bomb extends JComponent implements Comparable<Bomb> {
-	public final int BOMB_SIZE = Board.TILE_SIZE;
-	public final Image img1;
-	public final Image img2;
-	public final int CHANGE_DELAY = 500;
-	public final int BOOM_DELAY = 1500;
-	
-	public static int bombID1 = 1;
-	public static int bombID2 = 1;
+public class Bomb implements Comparable<Bomb> {
+	public final int CHANGE_DELAY;
+	public final int FUSE_CHANGES;
 	
 	private int x;
 	private int y;
 	private int id;
-	private int counter = 0;
-	private Timer timer;
-	private Image currentImage;
+	private int range;
+	private long fuseTick;
+	int slot; //Index in the Game's list of bombs on the grid
+	private final TickTask timer;
+	private final Animation animation;
+	private int frame;
+	private final TileGrid grid;
 	private Character p;
+	private final Game game;
 	
 	private boolean exploding;
 	
 	/**
-	 * Constructor decreases available bombs for player that placed the bomb. Assigns properties and starts the animation timer. Loads images.
+	 * Creates an unplaced bomb with its fuse task and animation. Used by the Game's pool.
+	 * @param game Game the bomb belongs to
+	 */
+	Bomb (Game game) {
+		
+		this.game = game;
+		this.grid = game.getGrid();
+		CHANGE_DELAY = game.getConfig().getBombChangeDelay();
+		FUSE_CHANGES = fuseChanges(game.getConfig());
+		timer = new TickTask() {
+			@Override
+			public void run() {
+				boom();
+			}
+		};
+		animation = new Animation() {
+			@Override
+			public void show(int frame) {
+				Bomb.this.frame = frame;
+				grid.setBombFrame(x/game.getConfig().getTileSize(), y/game.getConfig().getTileSize(), frame);
+			}
+		};
+
+	}
+	
+	/**
+	 * Assigns properties (the player's current range included), schedules the fuse and starts the animation.
 	 * @param x X coordinate
 	 * @param y Y coordinate
 	 * @param p Player reference
 	 */
-	public Bomb (int x, int y, Character p) {
+	void place (int x, int y, Character p) {
 		
 		this.p = p;
-		if (this.p.getPlayerNumber() == 1) {
-			this.id = bombID1;
-			bombID1++;
-		}
-		else if (this.p.getPlayerNumber() == 2) {
-			this.id = bombID2;
-			bombID2++;
-		}
+		this.id = game.nextBombId();
+		this.range = p.getRange();
 		this.x = x;
 		this.y = y;
-		img1 = new ImageIcon("images/bomb1_"+BOMB_SIZE+".png").getImage();
-		img2 = new ImageIcon("images/bomb2_"+BOMB_SIZE+".png").getImage();
-		currentImage = img1;
-		timer = new Timer();
-		timer.scheduleAtFixedRate(new TaskScheduler(), CHANGE_DELAY, CHANGE_DELAY);
+		exploding = false;
+		frame = 0;
+		int ticks = fuseTicks(game.getConfig());
+		fuseTick = game.getTick() + ticks;
+		game.getScheduler().schedule(timer, ticks);
+		game.getAnimator().play(animation, game.getAnimator().BOMB, 0);
 
 	}
-		
+	
 	/**
-	 * Contains simple logic for animation. Called repeatedly by a timer.
+	 * @param config Game settings
+	 * @return Returns the image change on which a bomb explodes (FUSE_CHANGES).
 	 */
-	public void changeImg () {
-		
-		if (counter == 6) {}
-		
-		else if (currentImage.equals(img1)) {
-			currentImage = img2;
-		}
-		
-		else {
-			currentImage = img1;
-		}
+	public static int fuseChanges (GameConfig config) {
+		return Math.max(1, Math.round((float)config.getBombFuse() / config.getBombChangeDelay()));
+	}
+	
+	/**
+	 * Fuse length in ticks as the game runs it: whole image changes, so it may differ from bombFuse converted directly.
+	 * @param config Game settings
+	 * @return Returns the ticks from placing a bomb to its detonation.
+	 */
+	public static int fuseTicks (GameConfig config) {
+		return fuseChanges(config) * GameLoop.millisToTicks(config.getBombChangeDelay());
 	}
 	
 	public int getX () {
@@ -90,39 +103,46 @@ public class Bomb extends JComponent implements Comparable<Bomb> {
 		return y;
 	}
 	
-	public Image getCurrentImage() {
-		return currentImage;
+	/**
+	 * @return Returns the animation frame (0 - bomb1, 1 - bomb2).
+	 */
+	public int getFrame() {
+		return frame;
+	}
+	
+	public Character getOwner () {
+		return p;
+	}
+	
+	public int getRange () {
+		return range;
 	}
 	
 	/**
-	 * Passes information about bomb explosion to the Player.
-	 * Player regains access to one bomb and passes information to Board for explosion processing.
+	 * @return Returns the tick at which the fuse runs out.
 	 */
-	public void boom () {
-		exploding = true;
-		timer = null;
-		p.bombExploded(this);
+	public long getFuseTick () {
+		return fuseTick;
 	}
 	
 	/**
-	 * Private class for timer's purposes. Contains some animation logic.
+	 * Queues the bomb for detonation (fuse ran out or hit by an explosion). Repeated calls are ignored.
+	 * The Game resolves the whole chain later in the same tick.
 	 */
-	private class TaskScheduler extends TimerTask {
-
-        @Override
-        public void run() {
-        	changeImg();
-			counter++;
-			if (counter == 6) {
-				if (exploding == false) {
-				boom();
-				}
-			}
-        }
-    }
-
+	public void boom () {
+		if (exploding == false) {
+			exploding = true;
+			timer.cancel();
+			animation.stop();
+			game.queueDetonation(this);
+		}
+	}
+	
 	@Override
 	public int compareTo(Bomb other) {
+		if (fuseTick != other.fuseTick) {
+			return (fuseTick < other.fuseTick) ? -1 : 1;
+		}
 		return id - other.id;
 	}
 	
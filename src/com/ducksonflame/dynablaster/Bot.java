@@ -0,0 +1,17 @@
+package com.ducksonflame.dynablaster;
+
+/**
+ * Computer player. Asked for its input once per tick, right before the Game is stepped, on the thread stepping the Game
+ * (so it may read the Game directly).
+ * <br>One instance plays one player in one match. Bots must take all randomness from the seed they were created with,
+ * so a match with bots is as reproducible as a recorded one.
+ */
+public interface Bot {
+
+	/**
+	 * @param game Game about to be stepped
+	 * @param player Index of the player controlled by the bot (0 is player 1)
+	 * @return Returns the input bitmask for this tick (Game.UP/DOWN/LEFT/RIGHT/BOMB).
+	 */
+	int nextInput (Game game, int player);
+}
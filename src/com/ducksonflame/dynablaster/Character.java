@@ -1,1114 +1,524 @@
 package com.ducksonflame.dynablaster;
 
-import java.awt.Dimension;
-import java.awt.Image;
-
-import java.util.*;
-
-import javax.swing.ImageIcon;
-import javax.swing.JComponent;
-
-
 /**
  * Class containing properties and logic for players.
+ * Part of the headless game model - the avatar is described by a facing direction and an animation frame, the Board picks the image.
+ * <br>Input is passed in once per tick as a bitmask of Game.UP/DOWN/LEFT/RIGHT/BOMB.
  */
-@SuppressWarnings("serial")
-public class Character extends JComponent {
-	
-	//Constants
-	private final int CHAR_WIDTH = Board.TILE_SIZE;
-	private final int CHAR_HEIGHT = Board.TILE_SIZE;
-	private final int MOVEMENT_ERROR_MARGIN = Board.MOVEMENT_ERROR_MARGIN;
-	private final int playerNumber; // 1 - white, 2 - black
-	private final Board gameBoard;
-	
-	//Strings of images locations for animation
-	private final String avatarUp;
-	private final String avatarUp1;
-	private final String avatarUp2;
-	private final String avatarDown;
-	private final String avatarDown1;
-	private final String avatarDown2;
-	private final String avatarLeft;
-	private final String avatarLeft1;
-	private final String avatarRight;
-	private final String avatarRight1;
-		
+public class Character {
+
+	//Constants (taken from the game's GameConfig)
+	private final int TILE_SIZE;
+	private final int NUMBER_OF_FREE_COLUMNS;
+	private final int NUMBER_OF_FREE_ROWS;
+	private final int MOVEMENT_ERROR_MARGIN;
+	private final int LAST_X; //Position in the last free column
+	private final int LAST_Y; //Position in the last free row
+	private final int playerNumber; // 1 - white, 2 - black, 3 and 4 - tinted
+	private final Game game;
+
+	//Facing directions (used by the renderer to pick the avatar)
+	public static final int FACING_UP = 0;
+	public static final int FACING_DOWN = 1;
+	public static final int FACING_LEFT = 2;
+	public static final int FACING_RIGHT = 3;
+	
+	//Positions are whole pixels, velocity and the distance saved up for movement are counted in SUBPIXELS per pixel
+	public static final int SUBPIXELS = 256;
+	private static final int MIN_PACE = 3; //Fastest pace reachable with speedUps
+	
+	//Direction tables for the movement kernel, indexed by facing: vertical axis, step sign, opposite key and perpendicular keys
+	private static final boolean[] VERTICAL = {true, true, false, false};
+	private static final int[] STEP = {-1, 1, -1, 1};
+	private static final int[] OPPOSITE = {Game.DOWN, Game.UP, Game.RIGHT, Game.LEFT};
+	private static final int[] CROSS = {Game.LEFT | Game.RIGHT, Game.LEFT | Game.RIGHT, Game.UP | Game.DOWN, Game.UP | Game.DOWN};
+	private static final int[] KEY = {Game.UP, Game.DOWN, Game.LEFT, Game.RIGHT};
+
 	//Variables
-	private Image currentAvatar;
+	private int facing;
+	private int frame; // 0 - standing, 1 and 2 - steps
 	private int x; // coordinate x
 	private int y; // coordinate y
-	private int bombsMax = Board.INITIAL_MAX_BOMBS;
-	private int expRange = Board.INITIAL_RANGE;
-	private int charSpeed = Board.TILE_SIZE/50;
-	private int charTimerSpeed = Board.INITIAL_CHAR_TIMER_SPEED;
-	private int FRAME_DELAY = 5*charTimerSpeed+100;
-	private int lastX; // used for not stopping in center tiles
-	private int lastY; // used for not stopping in center tiles
-	private Dimension currentTile = new Dimension();
-	
-	//Animation utils
-	private int animCounterUp = 0;
-	private int animCounterDown = 0;
-	private int animCounterRight = 0;
-	private int animCounterLeft = 0;
-	private Timer timerDown;
-	private Timer timerUp;
-	private Timer timerRight;
-	private Timer timerLeft;
-	private boolean timerUpRunning;
-	private boolean timerDownRunning;
-	private boolean timerRightRunning;
-	private boolean timerLeftRunning;
+	private int bombsMax;
+	private int expRange;
+	private int pace; //Time (ms) per 1/50 of a tile, lowered by speedUps
+	private int velocity; //Sub-pixels per tick, follows pace
 
-	private TreeSet<Bomb> bombs;
-	private Iterator<Bomb> iter;
+	//Input of the current tick and distance (sub-pixels) saved up for movement
+	private int input;
+	private int moveBudget;
+
+	//Walking animation (Animator.WALK clips): directions being walked in (bit per facing) and the facing whose clip plays
+	private final Animation walk;
+	private int walking;
+	private int walkFacing;
+
+	private int bombsPlaced;
+	private boolean alive = true;
 	
+	//Match statistics: bombs placed and powerUps picked up by type (1 - range, 2 - speed, 3 - bombs)
+	private int bombsTotal;
+	private final int[] pickUps = new int[4];
+
 	/**
-	 * Constructor sets player number, positions the player accordingly and loads appropriate image Strings.
+	 * Constructor sets player number and positions the player accordingly.
+	 * Player 1 starts in the top left corner, 2 - bottom right, 3 - top right, 4 - bottom left.
 	 * @param playerNo Player number (1 is white and 2 is black)
-	 * @param gameBoard Main game reference
+	 * @param game Game model reference
 	 */
-	public Character (int playerNo, Board gameBoard) {
-		
-		this.gameBoard = gameBoard;
+	public Character (int playerNo, Game game) {
+
+		this.game = game;
 		this.playerNumber = playerNo;
-		bombs = new TreeSet<Bomb>();
-				
-		if (playerNumber == 1) {
-			
-			x = Board.GAP_WIDTH + Board.TILE_SIZE;
-			y = Board.TILE_SIZE;
-			
-			currentAvatar = loadImage("images/avatarDown_"+CHAR_WIDTH+".png");
-			avatarUp = "images/avatarUp_"+CHAR_WIDTH+".png";
-			avatarUp1 = "images/avatarUp1_"+CHAR_WIDTH+".png";
-			avatarUp2 = "images/avatarUp2_"+CHAR_WIDTH+".png";			
-			avatarDown = "images/avatarDown_"+CHAR_WIDTH+".png";
-			avatarDown1 = "images/avatarDown1_"+CHAR_WIDTH+".png";
-			avatarDown2 = "images/avatarDown2_"+CHAR_WIDTH+".png";
-			avatarLeft = "images/avatarLeft_"+CHAR_WIDTH+".png";
-			avatarLeft1 = "images/avatarLeft1_"+CHAR_WIDTH+".png";
-			avatarRight = "images/avatarRight_"+CHAR_WIDTH+".png";
-			avatarRight1 = "images/avatarRight1_"+CHAR_WIDTH+".png";
-						
-		} else {
-			
-			x = Board.GAP_WIDTH + (2*(Board.NUMBER_OF_FREE_COLUMNS)-1)*Board.TILE_SIZE;
-			y = ((2*Board.NUMBER_OF_FREE_ROWS)-1)*Board.TILE_SIZE;
-			
-			currentAvatar = loadImage("images/avatarUp_black_"+CHAR_WIDTH+".png");
-			avatarUp = "images/avatarUp_black_"+CHAR_WIDTH+".png";
-			avatarUp1 = "images/avatarUp1_black_"+CHAR_WIDTH+".png";
-			avatarUp2 = "images/avatarUp2_black_"+CHAR_WIDTH+".png";			
-			avatarDown = "images/avatarDown_black_"+CHAR_WIDTH+".png";
-			avatarDown1 = "images/avatarDown1_black_"+CHAR_WIDTH+".png";
-			avatarDown2 = "images/avatarDown2_black_"+CHAR_WIDTH+".png";
-			avatarLeft = "images/avatarLeft_black_"+CHAR_WIDTH+".png";
-			avatarLeft1 = "images/avatarLeft1_black_"+CHAR_WIDTH+".png";
-			avatarRight = "images/avatarRight_black_"+CHAR_WIDTH+".png";
-			avatarRight1 = "images/avatarRight1_black_"+CHAR_WIDTH+".png";
-			
-		}
+
+		GameConfig config = game.getConfig();
+		TILE_SIZE = config.getTileSize();
+		NUMBER_OF_FREE_COLUMNS = config.getColumns();
+		NUMBER_OF_FREE_ROWS = config.getRows();
+		MOVEMENT_ERROR_MARGIN = config.getMovementErrorMargin();
+		bombsMax = config.getInitialMaxBombs();
+		expRange = config.getInitialRange();
+		pace = config.getInitialCharTimerSpeed();
+		velocity = velocityOf(pace);
+
+		int farX = (2*(NUMBER_OF_FREE_COLUMNS)-1)*TILE_SIZE;
+		int farY = ((2*NUMBER_OF_FREE_ROWS)-1)*TILE_SIZE;
+		boolean right = (playerNumber == 2 || playerNumber == 3);
+		boolean bottom = (playerNumber == 2 || playerNumber == 4);
+
+		x = right ? farX : TILE_SIZE;
+		y = bottom ? farY : TILE_SIZE;
+		facing = bottom ? FACING_UP : FACING_DOWN;
+
+		LAST_X = farX;
+		LAST_Y = farY;
 		
-		lastX = x;
-		lastY = y;
+		walk = new Animation() {
+			@Override
+			public void show(int frame) {
+				setAvatar(walkFacing, frame);
+			}
+		};
 	}
-		
-	/**
-	 * Used for loading images.
-	 * @param s File location/name
-	 * @return Returns Image
-	 */
-	private Image loadImage (String s) {
-		
-		ImageIcon ii = new ImageIcon(s);
-		return ii.getImage();
-		
-	}	
-	
+
 	/**
-	 * Contains all logic for moving down (position updates), animation (image swapping) and collision detection.
-	 * Handles powerUps if picked up.
+	 * Advances the player by one tick. Stops animations of released directions, places a bomb if requested
+	 * and moves in every held direction by the whole pixels of distance saved up at the current velocity.
+	 * <br>The kernel runs once per held direction and tick, so a fast player costs the same as a slow one.
+	 * Distance a move could not use at a tile boundary is saved for the next tick, so the average speed is exactly the velocity.
+	 * @param newInput Bitmask of Game.UP/DOWN/LEFT/RIGHT/BOMB held during this tick
 	 */
-	public void moveDown () {
-		
-		lastX = x;
-		lastY = y;
-		PowerUp[][] p = gameBoard.getPowerUps();
-		
-		if (p[(((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1]
-			 [((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1] != null) {
-			switch (p[(((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1]
-					 [((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1].getType()) {
-			case 1:
-				rangeUp();
-				gameBoard.powerUpPickUp((((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1, ((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1);
-				break;
-			case 2:
-				speedUp();
-				gameBoard.powerUpPickUp((((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1, ((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1);
-				break;
-			case 3:
-				bombsUp();
-				gameBoard.powerUpPickUp((((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1, ((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1);
-				break;
-			default:
-				break;	
+	public void step (int newInput) {
+
+		int released = input & ~newInput;
+		input = newInput;
+
+		for (int d = FACING_UP; d <= FACING_RIGHT; d++) {
+			if ((released & KEY[d]) != 0) {
+				stopAnim(d);
 			}
 		}
-		
-		if (playerNumber == 1 && gameBoard.getWRel() == false) {}
-		
-		else if (isNextDownBomb()) {
-			animDown();
+
+		if (held(Game.BOMB)) {
+			placeBomb();
 		}
-		
-		else if (playerNumber == 2 && gameBoard.getUpRel() == false) {}
-		
-		else if (this.y >= ((2*Board.NUMBER_OF_FREE_ROWS-1)*Board.TILE_SIZE)) {
-			if (playerNumber == 1) {
-				if (gameBoard.getDRel() == true && gameBoard.getARel() == true) {
-					animDown();
-				}
-				else {
-					stopTimerDown();
-				}
-			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getRightRel() == true && gameBoard.getLeftRel() == true) {
-					animDown();
-				}
-				else {
-					stopTimerDown();
-				}
-			}
-		} 
-		
-		else if ((((2*Board.NUMBER_OF_FREE_ROWS-1)*Board.TILE_SIZE) - this.y) <= charSpeed) {
-			if (playerNumber == 1) {
-				if (gameBoard.getDRel() == true && gameBoard.getARel() == true) {
-					animDown();
-					this.y = (2*Board.NUMBER_OF_FREE_ROWS-1)*Board.TILE_SIZE;
-				}
-				else {
-					stopTimerDown();
-				}
-			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getRightRel() == true && gameBoard.getLeftRel() == true) {
-					animDown();
-					this.y = (2*Board.NUMBER_OF_FREE_ROWS-1)*Board.TILE_SIZE;
-				}
-				else {
-					stopTimerDown();
-				}
-			}
+
+		if ((input & (Game.UP | Game.DOWN | Game.LEFT | Game.RIGHT)) == 0) {
+			moveBudget = 0;
+			return;
 		}
-		
-		else if (((this.y + charSpeed) >= getCurrentTile().getHeight()) && 
-				((gameBoard.dW.getPositions()
-						[(((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1]
-						[((int)getCurrentTile().getHeight()/Board.TILE_SIZE)]) != null)) {
-			if (playerNumber == 1) {
-				if (gameBoard.getDRel() == true && gameBoard.getARel() == true) {
-					animDown();
-					this.y = (int)getCurrentTile().getHeight();
-				}
-				else {
-					stopTimerDown();
-				}
-			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getRightRel() == true && gameBoard.getLeftRel() == true) {
-					animDown();
-					this.y = (int)getCurrentTile().getHeight();
-				}
-				else {
-					stopTimerDown();
-				}
-			}
+
+		moveBudget += velocity;
+		int distance = moveBudget / SUBPIXELS;
+		if (distance == 0) {
+			return;
 		}
-		
-		else if (((this.x - Board.GAP_WIDTH) % (2*Board.TILE_SIZE)) == Board.TILE_SIZE) {
-			if (playerNumber == 1) {
-				if ((gameBoard.getARel() == false || gameBoard.getDRel() == false) && y > lastY) {
-					stopTimerDown();
-				}
-				else {
-					animDown();
-					this.y += charSpeed;					
-				}
-			}
-			if (playerNumber == 2) {
-				if ((gameBoard.getRightRel() == false || gameBoard.getLeftRel() == false) && y > lastY) {
-					stopTimerDown();
-				}
-				else {
-					animDown();
-					this.y += charSpeed;					
-				}
-			}
+		moveBudget -= distance*SUBPIXELS;
+		int unused = 0;
+		if (held(Game.UP)) {
+			unused = Math.max(unused, move(FACING_UP, distance));
 		}
-		
-		else if (((this.x - Board.GAP_WIDTH) % (2*Board.TILE_SIZE)) > Board.TILE_SIZE && ((this.x - Board.GAP_WIDTH) % (2*Board.TILE_SIZE)) <= (Board.TILE_SIZE + MOVEMENT_ERROR_MARGIN)) {
-			if (playerNumber == 1) {
-				if (gameBoard.getDRel() == true && gameBoard.getARel() == true) {
-					animDown();
-					this.x -= charSpeed;
-				}
-				else {
-					stopTimerDown();
-				}
-			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getRightRel() == true && gameBoard.getLeftRel() == true) {
-					animDown();
-					this.x -= charSpeed;
-				}
-				else {
-					stopTimerDown();
-				}
-			}
+		if (held(Game.DOWN)) {
+			unused = Math.max(unused, move(FACING_DOWN, distance));
 		}
-		
-		else if (((this.x - Board.GAP_WIDTH) % (2*Board.TILE_SIZE)) >= (Board.TILE_SIZE - MOVEMENT_ERROR_MARGIN) && ((this.x - Board.GAP_WIDTH) % (2*Board.TILE_SIZE)) < Board.TILE_SIZE) {
-			if (playerNumber == 1) {
-				if (gameBoard.getDRel() == true && gameBoard.getARel() == true) {
-					animDown();
-					this.x += charSpeed;
-				}
-				else {
-					stopTimerDown();
-				}
-			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getRightRel() == true && gameBoard.getLeftRel() == true) {
-					animDown();
-					this.x += charSpeed;
-				}
-				else {
-					stopTimerDown();
-				}
-			}
+		if (held(Game.LEFT)) {
+			unused = Math.max(unused, move(FACING_LEFT, distance));
 		}
-		
+		if (held(Game.RIGHT)) {
+			unused = Math.max(unused, move(FACING_RIGHT, distance));
+		}
+		moveBudget += unused*SUBPIXELS;
+	}
+
+	private boolean held (int action) {
+		return (input & action) != 0;
+	}
+
+	/**
+	 * Picks up the PowerUp lying on the current tile, if any.
+	 */
+	private void pickUpPowerUp () {
+		int col = getTileX()/TILE_SIZE;
+		int row = getTileY()/TILE_SIZE;
+
+		int type = game.getGrid().getPowerUp(col, row);
+		if (type != 0) {
+			pickUps[type]++;
+		}
+		switch (type) {
+		case 1:
+			rangeUp();
+			game.powerUpPickUp(col, row);
+			break;
+		case 2:
+			speedUp();
+			game.powerUpPickUp(col, row);
+			break;
+		case 3:
+			bombsUp();
+			game.powerUpPickUp(col, row);
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Moves down by one tick's distance at the current velocity, at least one pixel (see move).
+	 */
+	public void moveDown () {
+		move(FACING_DOWN, Math.max(1, velocity/SUBPIXELS));
 	}
 	
 	/**
-	 * Contains all logic for moving up (position updates), animation (image swapping) and collision detection.
-	 * Handles powerUps if picked up.
+	 * Moves up by one tick's distance at the current velocity, at least one pixel (see move).
 	 */
 	public void moveUp () {
-		
-		lastX = x;
-		lastY = y;
-		PowerUp[][] p = gameBoard.getPowerUps();
-		
-		if (p[(((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1]
-			 [((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1] != null) {
-			switch (p[(((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1]
-					 [((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1].getType()) {
-			case 1:
-				rangeUp();
-				gameBoard.powerUpPickUp((((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1, ((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1);
-				break;
-			case 2:
-				speedUp();
-				gameBoard.powerUpPickUp((((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1, ((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1);
-				break;
-			case 3:
-				bombsUp();
-				gameBoard.powerUpPickUp((((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1, ((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1);
-				break;
-			default:
-				break;	
-			}
-		}
-		
-		if (playerNumber == 1 && gameBoard.getSRel() == false) {}
-		
-		else if (isNextUpBomb()) {
-			animUp();
-		}
-		
-		else if (playerNumber == 2 && gameBoard.getDownRel() == false) {}
-		
-		else if (this.y <= Board.TILE_SIZE) {
-			if (playerNumber == 1) {
-				if (gameBoard.getDRel() == true && gameBoard.getARel() == true) {
-					animUp();
-				}
-				else {
-					stopTimerUp();
-				}
-			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getRightRel() == true && gameBoard.getLeftRel() == true) {
-					animUp();
-				}
-				else {
-					stopTimerUp();
-				}
-			}
-		}
-		
-		else if ((this.y - Board.TILE_SIZE) <= charSpeed) {
-			if (playerNumber == 1) {
-				if (gameBoard.getDRel() == true && gameBoard.getARel() == true) {
-					animUp();
-					this.y = Board.TILE_SIZE;
-				}
-				else {
-					stopTimerUp();
-				}
-			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getRightRel() == true && gameBoard.getLeftRel() == true) {
-					animUp();
-					this.y = Board.TILE_SIZE;
-				}
-				else {
-					stopTimerUp();
-				}
-			}
-		}
-		
-		else if (((this.y - charSpeed) <= getCurrentTile().getHeight()) && 
-				((gameBoard.dW.getPositions()
-						[(((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1]
-						[((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-2]) != null)) {
-			if (playerNumber == 1) {
-				if (gameBoard.getDRel() == true && gameBoard.getARel() == true) {
-					animUp();
-					this.y = (int)getCurrentTile().getHeight();
-				}
-				else {
-					stopTimerUp();
-				}
-			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getRightRel() == true && gameBoard.getLeftRel() == true) {
-					animUp();
-					this.y = (int)getCurrentTile().getHeight();
-				}
-				else {
-					stopTimerUp();
-				}
-			}
-		}
-		
-		else if (((this.x - Board.GAP_WIDTH) % (2*Board.TILE_SIZE)) == Board.TILE_SIZE) {
-			if (playerNumber == 1) {
-				if ((gameBoard.getARel() == false || gameBoard.getDRel() == false) && y < lastY) {
-					stopTimerUp();
-				}
-				else {
-					animUp();
-					this.y -= charSpeed;					
-				}
-			}
-			if (playerNumber == 2) {
-				if ((gameBoard.getRightRel() == false || gameBoard.getLeftRel() == false) && y < lastY) {
-					stopTimerUp();
-				}
-				else {
-					animUp();
-					this.y -= charSpeed;				
-				}
-			}
-		}
-		
-		else if (((this.x - Board.GAP_WIDTH) % (2*Board.TILE_SIZE)) > Board.TILE_SIZE && ((this.x - Board.GAP_WIDTH) % (2*Board.TILE_SIZE)) <= (Board.TILE_SIZE + MOVEMENT_ERROR_MARGIN)) {
-			if (playerNumber == 1) {
-				if (gameBoard.getDRel() == true && gameBoard.getARel() == true) {
-					animUp();
-					this.x -= charSpeed;
-				}
-				else {
-					stopTimerUp();
-				}
-			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getRightRel() == true && gameBoard.getLeftRel() == true) {
-					animUp();
-					this.x -= charSpeed;
-				}
-				else {
-					stopTimerUp();
-				}
-			}			
-		}
-		
-		else if (((this.x - Board.GAP_WIDTH) % (2*Board.TILE_SIZE)) >= (Board.TILE_SIZE - MOVEMENT_ERROR_MARGIN) && ((this.x - Board.GAP_WIDTH) % (2*Board.TILE_SIZE)) < Board.TILE_SIZE) {
-			if (playerNumber == 1) {
-				if (gameBoard.getDRel() == true && gameBoard.getARel() == true) {
-					animUp();
-					this.x += charSpeed;
-				}
-				else {
-					stopTimerUp();
-				}
-			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getRightRel() == true && gameBoard.getLeftRel() == true) {
-					animUp();
-					this.x += charSpeed;
-				}
-				else {
-					stopTimerUp();
-				}
-			}
-		}
-		
+		move(FACING_UP, Math.max(1, velocity/SUBPIXELS));
 	}
 	
 	/**
-	 * Contains all logic for moving right (position updates), animation (image swapping) and collision detection.
-	 * Handles powerUps if picked up.
+	 * Moves right by one tick's distance at the current velocity, at least one pixel (see move).
 	 */
 	public void moveRight () {
-		
-		lastX = x;
-		lastY = y;
-		PowerUp[][] p = gameBoard.getPowerUps();
-		
-		if (p[(((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1]
-			 [((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1] != null) {
-			switch (p[(((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1]
-					 [((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1].getType()) {
-			case 1:
-				rangeUp();
-				gameBoard.powerUpPickUp((((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1, ((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1);
-				break;
-			case 2:
-				speedUp();
-				gameBoard.powerUpPickUp((((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1, ((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1);
-				break;
-			case 3:
-				bombsUp();
-				gameBoard.powerUpPickUp((((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1, ((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1);
-				break;
-			default:
-				break;	
-			}
-		}
-		
-		if (this.x >= (((2*Board.NUMBER_OF_FREE_COLUMNS-1)*Board.TILE_SIZE) + Board.GAP_WIDTH)) {
-			if (playerNumber == 1) {
-				if (gameBoard.getWRel() == true && gameBoard.getSRel() == true) {
-					animRight();
-				}
-				else {
-					stopTimerRight();
-				}
-			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getUpRel() == true && gameBoard.getDownRel() == true) {
-					animRight();
-				}
-				else {
-					stopTimerRight();
-				}
-			}
-		} 
-		
-		else if (isNextRightBomb()) {
-			animRight();
-		}
-		
-		else if ((((2*Board.NUMBER_OF_FREE_COLUMNS-1)*Board.TILE_SIZE + Board.GAP_WIDTH) - this.x) <= charSpeed) {
-			this.x = (2*Board.NUMBER_OF_FREE_COLUMNS-1)*Board.TILE_SIZE + Board.GAP_WIDTH;
-		}
-		
-		else if (((this.x + charSpeed) >= getCurrentTile().getWidth()) && 
-				((gameBoard.dW.getPositions()
-						[(((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)]
-						[((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1]) != null)) {
-			if (playerNumber == 1) {
-				if (gameBoard.getWRel() == true && gameBoard.getSRel() == true) {
-					animRight();
-					this.x = (int)getCurrentTile().getWidth();
-				}
-				else {
-					stopTimerRight();
-				}
-			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getUpRel() == true && gameBoard.getDownRel() == true) {
-					animRight();
-					this.x = (int)getCurrentTile().getWidth();
-				}
-				else {
-					stopTimerRight();
-				}
-			}			
-		}
-		
-		else if (((this.y) % (2*Board.TILE_SIZE)) == Board.TILE_SIZE) {
-			if (playerNumber == 1) {
-				if ((gameBoard.getWRel() == false || gameBoard.getSRel() == false) && x > lastX) {
-					stopTimerRight();
-				}
-				else {
-					animRight();
-					this.x += charSpeed;				
-				}
-			}
-			if (playerNumber == 2) {
-				if ((gameBoard.getUpRel() == false || gameBoard.getDownRel() == false) && x > lastX) {
-					stopTimerRight();
-				}
-				else {
-					animRight();
-					this.x += charSpeed;				
-				}
-			}
-		}
-		
-		else if (((this.y) % (2*Board.TILE_SIZE)) > Board.TILE_SIZE && ((this.y) % (2*Board.TILE_SIZE)) <= (Board.TILE_SIZE + MOVEMENT_ERROR_MARGIN)) {
-			if (playerNumber == 1) {
-				if (gameBoard.getWRel() == true && gameBoard.getSRel() == true) {
-					animRight();
-					this.y -= charSpeed;
-				}
-				else {
-					stopTimerRight();
-				}
-			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getUpRel() == true && gameBoard.getDownRel() == true) {
-					animRight();
-					this.y -= charSpeed;
-				}
-				else {
-					stopTimerRight();
-				}
-			}
-		}
-		
-		else if (((this.y) % (2*Board.TILE_SIZE)) >= (Board.TILE_SIZE - MOVEMENT_ERROR_MARGIN) && ((this.y) % (2*Board.TILE_SIZE)) < Board.TILE_SIZE) {
-			if (playerNumber == 1) {
-				if (gameBoard.getWRel() == true && gameBoard.getSRel() == true) {
-					animRight();
-					this.y += charSpeed;
-				}
-				else {
-					stopTimerRight();
-				}
-			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getUpRel() == true && gameBoard.getDownRel() == true) {
-					animRight();
-					this.y += charSpeed;
-				}
-				else {
-					stopTimerRight();
-				}
-			}
-		} 
+		move(FACING_RIGHT, Math.max(1, velocity/SUBPIXELS));
 	}
 	
 	/**
-	 * Contains all logic for moving left (position updates), animation (image swapping) and collision detection.
-	 * Handles powerUps if picked up.
+	 * Moves left by one tick's distance at the current velocity, at least one pixel (see move).
 	 */
 	public void moveLeft () {
+		move(FACING_LEFT, Math.max(1, velocity/SUBPIXELS));
+	}
+	
+	/**
+	 * Movement and collision for all four directions, driven by the direction tables. Picks up the powerUp on the current tile, then:
+	 * <br>- vertical moves do nothing while the opposite key is held
+	 * <br>- at the arena edge or in front of a bomb only the walking animation runs
+	 * <br>- closer to the edge than one step: snaps to the edge (horizontal moves without animation)
+	 * <br>- in front of a wall: snaps to the current tile
+	 * <br>- in a lane (odd row/column, free of pillars): steps ahead, stopping at the next tile boundary
+	 * <br>- up to MOVEMENT_ERROR_MARGIN beside a lane: slides back towards it (not past it), so corners can be cut
+	 * <br>Snapping and sliding do not happen while a perpendicular key is held - the animation is stopped instead.
+	 * <br>Stopping at tile boundaries and lane centers keeps every aligned position reachable whatever the distance per tick,
+	 * so turning into a lane works with any margin.
+	 * <br>The current tile is worked out once per call, every check is integer math plus at most one grid lookup, nothing is allocated.
+	 * @param d Direction (FACING_UP/DOWN/LEFT/RIGHT)
+	 * @param distance Pixels to move, less than half a tile
+	 * @return Returns the pixels of distance left over at a tile boundary or lane center, 0 if the move used all or was blocked.
+	 */
+	private int move (int d, int distance) {
 		
-		lastX = x;
-		lastY = y;
-		PowerUp[][] p = gameBoard.getPowerUps();
+		pickUpPowerUp();
 		
-		if (p[(((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1]
-			 [((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1] != null) {
-			switch (p[(((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1]
-					 [((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1].getType()) {
-			case 1:
-				rangeUp();
-				gameBoard.powerUpPickUp((((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1, ((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1);
-				break;
-			case 2:
-				speedUp();
-				gameBoard.powerUpPickUp((((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1, ((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1);
-				break;
-			case 3:
-				bombsUp();
-				gameBoard.powerUpPickUp((((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-1, ((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1);
-				break;
-			default:
-				break;	
-			}
+		boolean vertical = VERTICAL[d];
+		if (vertical && held(OPPOSITE[d])) {
+			return 0;
 		}
 		
-		if (this.x <= (Board.GAP_WIDTH + Board.TILE_SIZE)) {
-			if (playerNumber == 1) {
-				if (gameBoard.getWRel() == true && gameBoard.getSRel() == true) {
-					animLeft();
-				}
-				else {
-					stopTimerLeft();
-				}
+		int step = STEP[d];
+		int along = vertical ? y : x;
+		int across = vertical ? x : y;
+		int edge = (step > 0) ? (vertical ? LAST_Y : LAST_X) - along : along - TILE_SIZE; //Distance to the arena edge
+		boolean turning = (input & CROSS[d]) != 0;
+		
+		if (edge <= 0) {
+			if (turning == false) {
+				anim(d);
 			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getUpRel() == true && gameBoard.getDownRel() == true) {
-					animLeft();
-				}
-				else {
-					stopTimerLeft();
-				}
+			else {
+				stopAnim(d);
 			}
-		} 
-		
-		else if (isNextLeftBomb()) {
-			animLeft();
+			return 0;
 		}
 		
-		else if ((this.x - (Board.GAP_WIDTH + Board.TILE_SIZE)) <= charSpeed) {			
-			this.x = Board.GAP_WIDTH + Board.TILE_SIZE;
+		int tileAlong = tileOf(along);
+		int tileAcross = tileOf(across);
+		
+		//Bombs only block when the player is aligned with the lane exactly and not standing on the bomb already.
+		//A move that would enter the bomb's tile is refused as a whole, so the player may stop up to one tick's distance short of it.
+		int next = (step > 0) ? along + TILE_SIZE + distance : along - distance - 1;
+		int nextTile = (next - (next % TILE_SIZE)) / TILE_SIZE;
+		if (across % TILE_SIZE == 0 && tileAlong != nextTile*TILE_SIZE
+				&& (vertical ? game.getGrid().hasBomb(across/TILE_SIZE, nextTile) : game.getGrid().hasBomb(nextTile, across/TILE_SIZE))) {
+			anim(d);
+			return 0;
 		}
 		
-		else if (((this.x - charSpeed) <= getCurrentTile().getWidth()) && 
-				((gameBoard.dW.getPositions()
-						[(((int)getCurrentTile().getWidth()-Board.GAP_WIDTH)/Board.TILE_SIZE)-2]
-						[((int)getCurrentTile().getHeight()/Board.TILE_SIZE)-1]) != null)) {
-			if (playerNumber == 1) {
-				if (gameBoard.getWRel() == true && gameBoard.getSRel() == true) {
-					animLeft();
-					this.x = (int)getCurrentTile().getWidth();
-				}
-				else {
-					stopTimerLeft();
-				}
+		if (edge <= distance) {
+			if (vertical == false) {
+				setPosition(false, along + step*edge);
 			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getUpRel() == true && gameBoard.getDownRel() == true) {
-					animLeft();
-					this.x = (int)getCurrentTile().getWidth();
-				}
-				else {
-					stopTimerLeft();
-				}
+			else if (turning == false) {
+				anim(d);
+				setPosition(true, along + step*edge);
 			}
+			else {
+				stopAnim(d);
+			}
+			return 0;
 		}
 		
-		else if (((this.y) % (2*Board.TILE_SIZE)) == Board.TILE_SIZE) {
-			if (playerNumber == 1) {
-				if ((gameBoard.getWRel() == false || gameBoard.getSRel() == false) && x < lastX) {
-					stopTimerLeft();
-				}
-				else {
-					animLeft();
-					this.x -= charSpeed;			
-				}
+		int wallAlong = tileAlong/TILE_SIZE + step;
+		if (step*(along + step*distance - tileAlong) >= 0
+				&& (vertical ? game.getGrid().isWall(tileAcross/TILE_SIZE, wallAlong) : game.getGrid().isWall(wallAlong, tileAcross/TILE_SIZE))) {
+			if (turning == false) {
+				anim(d);
+				setPosition(vertical, tileAlong);
 			}
-			if (playerNumber == 2) {
-				if ((gameBoard.getUpRel() == false || gameBoard.getDownRel() == false) && x < lastX) {
-					stopTimerLeft();
-				}
-				else {
-					animLeft();
-					this.x -= charSpeed;			
-				}
+			else {
+				stopAnim(d);
 			}
+			return 0;
 		}
 		
-		else if (((this.y) % (2*Board.TILE_SIZE)) > Board.TILE_SIZE && ((this.y) % (2*Board.TILE_SIZE)) <= (Board.TILE_SIZE + MOVEMENT_ERROR_MARGIN)) {
-			if (playerNumber == 1) {
-				if (gameBoard.getWRel() == true && gameBoard.getSRel() == true) {
-					animLeft();
-					this.y -= charSpeed;
-				}
-				else {
-					stopTimerLeft();
-				}
-			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getUpRel() == true && gameBoard.getDownRel() == true) {
-					animLeft();
-					this.y -= charSpeed;
-				}
-				else {
-					stopTimerLeft();
-				}
-			}			
+		int lane = across % (2*TILE_SIZE);
+		if (lane == TILE_SIZE) {
+			int offset = along % TILE_SIZE;
+			int boundary = (offset == 0) ? TILE_SIZE : (step > 0) ? TILE_SIZE - offset : offset; //Distance to the next tile boundary
+			int moved = Math.min(distance, boundary);
+			anim(d);
+			setPosition(vertical, along + step*moved);
+			return distance - moved;
 		}
-		
-		else if (((this.y) % (2*Board.TILE_SIZE)) >= (Board.TILE_SIZE - MOVEMENT_ERROR_MARGIN) && ((this.y) % (2*Board.TILE_SIZE)) < Board.TILE_SIZE) {
-			if (playerNumber == 1) {
-				if (gameBoard.getWRel() == true && gameBoard.getSRel() == true) {
-					animLeft();
-					this.y += charSpeed;
-				}
-				else {
-					stopTimerLeft();
-				}
-			}
-			else if (playerNumber == 2) {
-				if (gameBoard.getUpRel() == true && gameBoard.getDownRel() == true) {
-					animLeft();
-					this.y += charSpeed;
-				}
-				else {
-					stopTimerLeft();
-				}
+		else if (Math.abs(lane - TILE_SIZE) <= MOVEMENT_ERROR_MARGIN) {
+			if (turning == false) {
+				int moved = Math.min(distance, Math.abs(lane - TILE_SIZE));
+				anim(d);
+				setPosition(vertical == false, (lane > TILE_SIZE) ? across - moved : across + moved);
+				return distance - moved;
 			}
-		} 
+			stopAnim(d);
+		}
+		return 0;
 	}
 	
 	/**
-	 * Handles animation when running up. Scales with quicker movement (after powerUp pickup).
+	 * Sets y (vertical) or x.
 	 */
-	public void animUp() {
-		if (timerUpRunning == false) {
-			
-			timerUp = new Timer();
-			timerUp.scheduleAtFixedRate(new TimerTask() {
-				@Override
-				public void run(){
-					if (animCounterUp == 0) {
-						currentAvatar = loadImage(avatarUp);
-						animCounterUp++;
-					}
-					else if (animCounterUp == 1) {
-						currentAvatar = loadImage(avatarUp1);
-						animCounterUp++;
-					}
-					else if (animCounterUp == 2) {
-						currentAvatar = loadImage(avatarUp);
-						animCounterUp++;
-					}
-					else if (animCounterUp == 3) {
-						currentAvatar = loadImage(avatarUp2);
-						animCounterUp = 0;
-					}
-		    	}
-			},0,FRAME_DELAY);
-			
-			timerUpRunning = true;
+	private void setPosition (boolean vertical, int position) {
+		if (vertical) {
+			y = position;
+		}
+		else {
+			x = position;
 		}
 	}
 	
 	/**
-	 * Handles animation when running down. Scales with quicker movement (after powerUp pickup).
+	 * Starts the walking animation in the direction, unless it is already walking that way.
+	 * The clip of the direction started last plays, so the avatar faces that way.
 	 */
-	public void animDown() {
-		if (timerDownRunning == false) {
-			
-			timerDown = new Timer();
-			timerDown.scheduleAtFixedRate(new TimerTask() {
-				@Override
-				public void run(){
-					if (animCounterDown == 0) {
-						currentAvatar = loadImage(avatarDown);
-						animCounterDown++;
-					}
-					else if (animCounterDown == 1) {
-						currentAvatar = loadImage(avatarDown1);
-						animCounterDown++;
-					}
-					else if (animCounterDown == 2) {
-						currentAvatar = loadImage(avatarDown);
-						animCounterDown++;
-					}
-					else if (animCounterDown == 3) {
-						currentAvatar = loadImage(avatarDown2);
-						animCounterDown = 0;
-					}
-		    	}
-			},0,FRAME_DELAY);
-			
-			timerDownRunning = true;
+	private void anim (int d) {
+		if ((walking & (1 << d)) == 0) {
+			walking |= 1 << d;
+			walkFacing = d;
+			game.getAnimator().play(walk, game.getAnimator().WALK[d], 0);
 		}
 	}
 	
 	/**
-	 * Handles animation when running right. Scales with quicker movement (after powerUp pickup).
+	 * Stops walking in the direction. Sets the standing avatar if not walking in any other direction,
+	 * otherwise plays the clip of another one.
 	 */
-	public void animRight() {
-		if (timerRightRunning == false) {
-			
-			timerRight = new Timer();
-			timerRight.scheduleAtFixedRate(new TimerTask() {
-				@Override
-				public void run(){
-					if (animCounterRight == 0) {
-						currentAvatar = loadImage(avatarRight);
-						animCounterRight++;
-					}
-					else if (animCounterRight == 1) {
-						currentAvatar = loadImage(avatarRight1);
-						animCounterRight = 0;
-					}
-		    	}
-			},0,FRAME_DELAY);
-			
-			timerRightRunning = true;
+	private void stopAnim (int d) {
+		walking &= ~(1 << d);
+		if (walking == 0) {
+			walk.stop();
+			setAvatar(d, 0);
+		}
+		else if (walkFacing == d) {
+			walkFacing = Integer.numberOfTrailingZeros(walking);
+			game.getAnimator().play(walk, game.getAnimator().WALK[walkFacing], 0);
 		}
 	}
 	
 	/**
-	 * Handles animation when running left. Scales with quicker movement (after powerUp pickup).
+	 * Calculates the x coordinate of the current tile.
+	 * @return Returns x of the tile the player's center is in.
 	 */
-	public void animLeft() {
-		if (timerLeftRunning == false) {
-			
-			timerLeft = new Timer();
-			timerLeft.scheduleAtFixedRate(new TimerTask() {
-				@Override
-				public void run(){
-					if (animCounterLeft == 0) {
-						currentAvatar = loadImage(avatarLeft);
-						animCounterLeft++;
-					}
-					else if (animCounterLeft == 1) {
-						currentAvatar = loadImage(avatarLeft1);
-						animCounterLeft = 0;
-					}
-		    	}
-			},0,FRAME_DELAY);
-			
-			timerLeftRunning = true;
-		}
+	public int getTileX () {
+		return tileOf(x);
 	}
 	
 	/**
-	 * Calculates current tile.
-	 * @return Returns current tile (Dimension).
+	 * Calculates the y coordinate of the current tile.
+	 * @return Returns y of the tile the player's center is in.
 	 */
-	public Dimension getCurrentTile () {
-		int tempX;
-		int tempY;
-		
-		if (((this.y - Board.TILE_SIZE) % Board.TILE_SIZE) <= (CHAR_HEIGHT/2)) {
-			tempY = this.y - ((this.y - Board.TILE_SIZE) % Board.TILE_SIZE);
-		} 
-		else {
-			tempY = this.y - ((this.y - Board.TILE_SIZE) % Board.TILE_SIZE) + Board.TILE_SIZE;
-		}
-		
-		if (((this.x - (Board.TILE_SIZE+Board.GAP_WIDTH)) % Board.TILE_SIZE) <= (CHAR_WIDTH/2)) {
-			tempX = this.x - ((this.x - (Board.TILE_SIZE+Board.GAP_WIDTH)) % Board.TILE_SIZE);
-		} 
-		else {
-			tempX = this.x - ((this.x - (Board.TILE_SIZE+Board.GAP_WIDTH)) % Board.TILE_SIZE) + Board.TILE_SIZE;
+	public int getTileY () {
+		return tileOf(y);
+	}
+	
+	/**
+	 * @return Returns the position of the tile the player's center is in, along one axis (the player is one tile wide and high).
+	 */
+	private int tileOf (int position) {
+		int offset = (position - TILE_SIZE) % TILE_SIZE;
+		if (offset <= TILE_SIZE/2) {
+			return position - offset;
 		}
-		
-		currentTile.setSize(tempX, tempY);
-		return currentTile;
+		return position - offset + TILE_SIZE;
 	}
 		
 	/**
-	 * Places bomb on current tile. Checks whether the tile is valid.
+	 * Places bomb on current tile. The game refuses tiles that already hold a bomb.
 	 */
 	public void placeBomb () {
-		if (bombs.size() < bombsMax) {
-			if (bombs.size() == 0){
-				bombs.add(new Bomb((int)getCurrentTile().getWidth(), (int)getCurrentTile().getHeight(), this));
-			}
-			else {
-				boolean valid = true;
-				
-				for (Iterator<Bomb> i = bombs.iterator(); i.hasNext(); ) {
-					Bomb b = i.next();
-					if (b != null && getCurrentTile().getWidth() == b.getX() && getCurrentTile().getHeight() == b.getY()) {
-						valid = false;
-					}
-				}
-				if (valid == true) {						
-					bombs.add(new Bomb((int)getCurrentTile().getWidth(), (int)getCurrentTile().getHeight(), this));
-				}
-			}
-		}
+		placeBomb(getTileX(), getTileY());
 	}
 	
 	/**
-	 * Calls newExplosion from the gameBoard and removes the exploding bomb.
-	 * @param b Reference to exploding bomb.
+	 * Places one of the player's bombs on any tile, counted against the bomb limit like a bomb on the current tile.
+	 * Lets benchmarks and tools set up bombs away from the player.
+	 * @param x X coordinate of the tile
+	 * @param y Y coordinate of the tile
+	 * @return Returns true if the bomb was placed.
 	 */
-	public void bombExploded (Bomb b) {
-		gameBoard.newExplosion(b.getX(), b.getY(), this.expRange);
-		
-		iter = bombs.iterator();
-		if (iter.hasNext()) {
-				iter.next();
-				iter.remove();
+	public boolean placeBomb (int x, int y) {
+		if (bombsPlaced < bombsMax && game.placeBomb(this, x, y)) {
+			bombsPlaced++;
+			bombsTotal++;
+			return true;
 		}
+		return false;
 	}
 	
 	/**
-	 * Stops animation (moving up) and sets the correct avatar if not moving in any other direction.
+	 * Gives the bomb back to the player. Called by the Game when one of this player's bombs explodes.
 	 */
-	public void stopTimerUp() {
-		if (timerUpRunning) {
-			timerUp.cancel();
-			timerUpRunning = false;
-		}
-		if (!timerDownRunning && !timerRightRunning && !timerLeftRunning) {
-			currentAvatar = loadImage(avatarUp);
-		}
+	public void bombExploded () {
+		bombsPlaced--;
 	}
 	
 	/**
-	 * Stops animation (moving down) and sets the correct avatar if not moving in any other direction.
+	 * Kills the player and passes the player number to the game. Dead players no longer move or get hit.
 	 */
-	public void stopTimerDown() {
-		if (timerDownRunning) {
-			timerDown.cancel();
-			timerDownRunning = false;			
+	public void kill() {
+		if (alive == false) {
+			return;
 		}
-		if (!timerUpRunning && !timerRightRunning && !timerLeftRunning) {
-			currentAvatar = loadImage(avatarDown);			
-		}	
+		alive = false;
+		walk.stop();
+		game.playerKilled(playerNumber);
 	}
 	
-	/**
-	 * Stops animation (moving right) and sets the correct avatar if not moving in any other direction.
-	 */
-	public void stopTimerRight () {
-		if (timerRightRunning) {
-			timerRight.cancel();
-			timerRightRunning = false;
-		}
-		if (!timerDownRunning && !timerUpRunning && !timerLeftRunning) {
-			currentAvatar = loadImage(avatarRight);			
-		}	
+	public boolean isAlive () {
+		return alive;
 	}
 	
 	/**
-	 * Stops animation (moving left) and sets the correct avatar if not moving in any other direction.
+	 * Increases maximum bomb limit (powerUp pickup).
 	 */
-	public void stopTimerLeft () {
-		if (timerLeftRunning) {
-			timerLeft.cancel();
-			timerLeftRunning = false;
-		}
-		if (!timerDownRunning && !timerUpRunning && !timerRightRunning) {
-			currentAvatar = loadImage(avatarLeft);			
-		}
+	private void bombsUp() {
+		this.bombsMax++;
 	}
 	
 	/**
-	 * Kills the player and passes the player number to the main game board.
+	 * Increases range on future bombs placed (powerUp pickup).
 	 */
-	public void kill() {
-		gameBoard.stopTimer();
-		gameBoard.endGame(playerNumber);
+	private void rangeUp() {
+		this.expRange++;
 	}
 	
 	/**
-	 * Checks whether the next tile down contains a bomb. Both bomb sets are evaluated.
-	 * @return Returns true if there is a bomb in the next tile down.
+	 * Increases speed of the player: takes 1 ms off the pace and recomputes the velocity.
+	 * Progression is non-linear, capped at 5 powerUp pickups with the default pace (powerUp pickup).
 	 */
-	private boolean isNextDownBomb () {
-		for (Bomb b: gameBoard.p1.getBombs()) {
-			if (getX() == b.getX() && getY()+Board.TILE_SIZE+charSpeed >= b.getY() && getY()+Board.TILE_SIZE+charSpeed < b.getY()+Board.TILE_SIZE && getCurrentTile().getHeight() != b.getY()) {
-				return true;
-			}			
-		}
-		
-		for (Bomb b: gameBoard.p2.getBombs()) {
-			if (getX() == b.getX() && getY()+Board.TILE_SIZE+charSpeed >= b.getY() && getY()+Board.TILE_SIZE+charSpeed < b.getY()+Board.TILE_SIZE && getCurrentTile().getHeight() != b.getY()) {
-				return true;
-			}			
+	private void speedUp() {
+		if (this.pace > MIN_PACE) {
+			this.pace--;
+			this.velocity = velocityOf(pace);
 		}
-		
-		return false;
 	}
 	
 	/**
-	 * Checks whether the next tile up contains a bomb. Both bomb sets are evaluated.
-	 * @return Returns true if there is a bomb in the next tile up.
+	 * Converts a pace to a velocity. Speed scales with TILE_SIZE, so it is the same in tiles per second on every tile size.
+	 * @param pace Time (ms) per 1/50 of a tile
+	 * @return Returns the velocity in sub-pixels per tick, rounded (at least 1).
 	 */
-	private boolean isNextUpBomb () {
-		for (Bomb b: gameBoard.p1.getBombs()) {
-			if (getX() == b.getX() && getY()-Board.TILE_SIZE-charSpeed <= b.getY() && getY()-Board.TILE_SIZE-charSpeed > b.getY()-Board.TILE_SIZE && getCurrentTile().getHeight() != b.getY()) {
-				return true;
-			}			
-		}
-		
-		for (Bomb b: gameBoard.p2.getBombs()) {
-			if (getX() == b.getX() && getY()-Board.TILE_SIZE-charSpeed <= b.getY() && getY()-Board.TILE_SIZE-charSpeed > b.getY()-Board.TILE_SIZE && getCurrentTile().getHeight() != b.getY()) {
-				return true;
-			}			
-		}
-		
-		return false;
+	private int velocityOf (int pace) {
+		long subPixels = (long)TILE_SIZE*SUBPIXELS*1000;
+		long perTick = 50L*pace*GameLoop.TICK_RATE;
+		return (int)Math.max(1, (subPixels + perTick/2)/perTick);
+	}
+	
+	public int getRange() {
+		return expRange;
 	}
 	
 	/**
-	 * Checks whether the next tile right contains a bomb. Both bomb sets are evaluated.
-	 * @return Returns true if there is a bomb in the next tile right.
+	 * @return Returns the velocity in sub-pixels (SUBPIXELS per pixel) per tick.
 	 */
-	private boolean isNextRightBomb () {
-		for (Bomb b: gameBoard.p1.getBombs()) {
-			if (getX()+Board.TILE_SIZE+charSpeed >= b.getX() && getX()+Board.TILE_SIZE+charSpeed < b.getX()+Board.TILE_SIZE && getY() == b.getY() && getCurrentTile().getWidth() != b.getX()) {
-				return true;
-			}			
-		}
-		
-		for (Bomb b: gameBoard.p2.getBombs()) {
-			if (getX()+Board.TILE_SIZE+charSpeed >= b.getX() && getX()+Board.TILE_SIZE+charSpeed < b.getX()+Board.TILE_SIZE && getY() == b.getY() && getCurrentTile().getWidth() != b.getX()) {
-				return true;
-			}			
-		}
-		
-		return false;
+	public int getVelocity() {
+		return velocity;
 	}
 	
 	/**
-	 * Checks whether the next tile left contains a bomb. Both bomb sets are evaluated.
-	 * @return Returns true if there is a bomb in the next tile left.
+	 * @return Returns the number of bombs the player may have on the grid at once.
 	 */
-	private boolean isNextLeftBomb () {
-		for (Bomb b: gameBoard.p1.getBombs()) {
-			if (getX()-Board.TILE_SIZE-charSpeed <= b.getX() && getX()-Board.TILE_SIZE-charSpeed > b.getX()-Board.TILE_SIZE && getY() == b.getY() && getCurrentTile().getWidth() != b.getX()) {
-				return true;
-			}			
-		}
-		
-		for (Bomb b: gameBoard.p2.getBombs()) {
-			if (getX()-Board.TILE_SIZE-charSpeed <= b.getX() && getX()-Board.TILE_SIZE-charSpeed > b.getX()-Board.TILE_SIZE && getY() == b.getY() && getCurrentTile().getWidth() != b.getX()) {
-				return true;
-			}
-		}
-		
-		return false;
+	public int getBombsMax() {
+		return bombsMax;
 	}
 	
 	/**
-	 * Increases maximum bomb limit (powerUp pickup).
+	 * @return Returns the number of this player's bombs still on the grid.
 	 */
-	private void bombsUp() {
-		this.bombsMax++;
+	public int getBombsPlaced() {
+		return bombsPlaced;
 	}
-	
+
 	/**
-	 * Increases range on future bombs placed (powerUp pickup).
+	 * @return Returns the number of bombs this player placed during the match.
 	 */
-	private void rangeUp() {
-		this.expRange++;
+	public int getBombsTotal() {
+		return bombsTotal;
 	}
 	
 	/**
-	 * Increases speed of the player (actually uses higher refresh rate for movement). 
-	 * Progression is non-linear, capped at 5 powerUp pickups (powerUp pickup).
+	 * @param type PowerUp type (1 - range, 2 - speed, 3 - bombs)
+	 * @return Returns the number of powerUps of the type this player picked up during the match.
 	 */
-	private void speedUp() {
-		if (this.charTimerSpeed > 3) {
-			this.charTimerSpeed--;			
-		}
+	public int getPickUps(int type) {
+		return pickUps[type];
 	}
-	
-	public int getCharTimerSpeed() {
-		return charTimerSpeed;
+
+	/**
+	 * @return Returns the direction the avatar faces (FACING_UP/DOWN/LEFT/RIGHT).
+	 */
+	public int getFacing () {
+		return facing;
 	}
 	
-	public TreeSet<Bomb> getBombs() {
-		return (TreeSet<Bomb>)bombs;
+	/**
+	 * @return Returns the animation frame (0 - standing, 1 and 2 - steps).
+	 */
+	public int getFrame () {
+		return frame;
 	}
-
-	public Image getCurrentAvatar () {
-		return currentAvatar;
+	
+	private void setAvatar (int facing, int frame) {
+		this.facing = facing;
+		this.frame = frame;
 	}
 	
 	public int getPlayerNumber () {
@@ -0,0 +1,54 @@
+package com.ducksonflame.dynablaster;
+
+/**
+ * Animation clip definition - a list of frames, each shown for the same number of ticks, played once or looped.
+ * <br>Frames are plain indices that the renderer resolves to sprites at draw time (e.g. a powerUp frame selects the image in the
+ * Board's powerUp table), so a new animated asset only needs its images and a clip. Clips are immutable and shared by every
+ * Animation playing them.
+ */
+public final class Clip {
+
+	private final int[] frames;
+	private final int frameTicks;
+	private final boolean loop;
+
+	/**
+	 * @param frameTicks Ticks every frame is shown for (at least one)
+	 * @param loop True to start over after the last frame, false to stop on it
+	 * @param frames Frames in playing order
+	 */
+	public Clip (int frameTicks, boolean loop, int... frames) {
+		if (frames.length == 0) {
+			throw new IllegalArgumentException("Clip without frames");
+		}
+		this.frameTicks = Math.max(1, frameTicks);
+		this.loop = loop;
+		this.frames = frames.clone();
+	}
+
+	/**
+	 * Creates a clip timed in milliseconds of game time (rounded to whole ticks, see GameLoop.millisToTicks).
+	 */
+	public static Clip ofMillis (int frameMillis, boolean loop, int... frames) {
+		return new Clip(GameLoop.millisToTicks(frameMillis), loop, frames);
+	}
+
+	public int getFrame (int index) {
+		return frames[index];
+	}
+
+	/**
+	 * @return Returns the number of frames.
+	 */
+	public int getLength () {
+		return frames.length;
+	}
+
+	public int getFrameTicks () {
+		return frameTicks;
+	}
+
+	public boolean isLoop () {
+		return loop;
+	}
+}
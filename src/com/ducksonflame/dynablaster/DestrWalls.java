@@ -1,130 +1,113 @@
 package com.ducksonflame.dynablaster;
-import java.awt.Dimension;
-import java.awt.Image;
-import java.util.Timer;
-import java.util.TimerTask;
-
-import javax.swing.ImageIcon;
-import javax.swing.JComponent;
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
 
 /**
  * Class for destructible walls (destructible by bomb explosions).
+ * Walls are spawned and powerUp drops rolled with the game's seeded random numbers.
+ * Walls live in the game's TileGrid as WALL, CRUMBLING_1 and CRUMBLING_2 terrain. The Board picks the image for the terrain.
+ * <br>Crumbling walls are animated by the game's Animator (Animator.WALL_CRUMBLE clip) and removed by a task on the game's TickScheduler.
+ * The animation and the task of a crumbling wall are pooled: they are created once and reused for the next wall after the wall is gone.
  */
-
-@SuppressWarnings("serial")
-public class DestrWalls extends JComponent {
-		
-	private final Image img = new ImageIcon("images/destrWalls_"+Board.TILE_SIZE+".png").getImage();
-	private final Image imgDestr = new ImageIcon("images/destrWalls_1_"+Board.TILE_SIZE+".png").getImage();
-	private final Image imgDestr1 = new ImageIcon("images/destrWalls_2_"+Board.TILE_SIZE+".png").getImage();
-	
-	//Walls positions
-	private Dimension[][] positions = new Dimension[(2*Board.NUMBER_OF_FREE_COLUMNS)][(2*Board.NUMBER_OF_FREE_ROWS)];
+public class DestrWalls {
 	
-	//Separated img positions in order to facilitate animations per each wall
-	private Image[][] imgPositions = new Image[(2*Board.NUMBER_OF_FREE_COLUMNS)][(2*Board.NUMBER_OF_FREE_ROWS)];
-	
-	//Booleans for animations and for preventing repeated calls to setPositionNull method corrupting logic
-	private boolean[][] positionsTimerRunning = new boolean[(2*Board.NUMBER_OF_FREE_COLUMNS)][(2*Board.NUMBER_OF_FREE_ROWS)];
-	private boolean[][] imgPositionsTimerRunning = new boolean[(2*Board.NUMBER_OF_FREE_COLUMNS)][(2*Board.NUMBER_OF_FREE_ROWS)];
-	
-	private final double POWER_UP_RATE = Board.POWER_UP_RATE;
-	private Board gameBoard;
+	private final double POWER_UP_RATE;
+	private final int EXPLOSION_LIFE;
+	private Game game;
+	private TileGrid grid;
+	private final ArrayDeque<Crumble> crumblePool = new ArrayDeque<Crumble>();
 	
 	/**
-	 * Assigns eligible locations. Excludes tiles adjacent to players' starting positions to allow for proper game start.
-	 * @param b Reference to main game
+	 * Assigns eligible locations. Excludes tiles adjacent to all four corners (players' starting positions) to allow for proper game start.
+	 * @param game Game model reference
+	 * @param grid Grid to fill
 	 */
-	public DestrWalls (Board b) {
+	public DestrWalls (Game game, TileGrid grid) {
 		
-		gameBoard = b;
+		this.game = game;
+		this.grid = grid;
+		POWER_UP_RATE = game.getConfig().getPowerUpRate();
+		EXPLOSION_LIFE = game.getConfig().getExplosionLife();
+		double spawnRate = game.getConfig().getSpawnRate();
+		SplittableRandom random = game.getRandom();
+		int lastCol = grid.getColumns()-2;
+		int lastRow = grid.getRows()-2;
 		
-		for (int i = 0; i < positions.length-1; i++) {
-			for (int j = 0; j < positions[i].length-1; j++) {
+		for (int col = 1; col <= lastCol; col++) {
+			for (int row = 1; row <= lastRow; row++) {
 				
-				double rand = Math.random();
+				double rand = random.nextDouble();
 				
-				if ((rand > Board.SPAWN_RATE) || (((i % 2) == 1) && ((j % 2) == 1))) { 
-					positions[i][j] = null;
-					imgPositions[i][j] = null;
-				}
+				if ((rand > spawnRate) || grid.getTerrain(col, row) != TileGrid.EMPTY) {}
 				
-				else if ((i == 0 || i == 1) && (j == 0 || j == 1)) {
-					positions[i][j] = null;
-					imgPositions[i][j] = null;
-				}
+				else if ((col == 1 || col == 2) && (row == 1 || row == 2)) {}
 				
-				else if ((i == (positions.length-2) || i == (positions.length-3)) && (j == (positions[i].length-2) || j == (positions[i].length-3))) {
-					positions[i][j] = null;
-					imgPositions[i][j] = null;
-				}
+				else if ((col == lastCol || col == lastCol-1) && (row == lastRow || row == lastRow-1)) {}
+				
+				else if ((col == lastCol || col == lastCol-1) && (row == 1 || row == 2)) {}
+				
+				else if ((col == 1 || col == 2) && (row == lastRow || row == lastRow-1)) {}
 				
 				else {
-					positions[i][j] = new Dimension((i*Board.TILE_SIZE)+Board.TILE_SIZE+Board.GAP_WIDTH, (j*Board.TILE_SIZE)+Board.TILE_SIZE);
-					imgPositions[i][j] = img;
-					positionsTimerRunning[i][j] = false;
-					imgPositionsTimerRunning[i][j] = false;
+					grid.setTerrain(col, row, TileGrid.WALL);
 				}
 			}
 		}
 	}
 	
-	public Image getImg(int i, int j) {
-		return imgPositions[i][j];
-	}
-	
-	public Dimension[][] getPositions() {
-		return positions;
-	}
-	
 	/**
 	 * Handles animation and destruction of the wall after getting hit by an explosion. Speed scales with explosion's speed.
-	 * @param i Index i
-	 * @param j Index j
+	 * Walls that are already crumbling are left alone.
+	 * @param col Column of the wall
+	 * @param row Row of the wall
 	 */
-	public void setPositionNull (int i, int j) {
+	public void crumble (int col, int row) {
 		
-		double pwrUpRandom = Math.random();
+		if (grid.getTerrain(col, row) == TileGrid.WALL) {
+			Crumble c = crumblePool.poll();
+			if (c == null) {
+				c = new Crumble();
+			}
+			c.start(col, row, game.getRandom().nextDouble());
+		}
+	}
+	
+	/**
+	 * Animation and removal task of one crumbling wall. Goes back to the pool when the wall is gone.
+	 */
+	private class Crumble {
+		private int col;
+		private int row;
+		private double pwrUpRandom;
+		private final Animation animation;
+		private final TickTask removal;
 		
-		if (imgPositionsTimerRunning[i][j] == false) {
-			imgPositionsTimerRunning[i][j] = true;
-			Timer imgTimer = new Timer();
-			imgTimer.scheduleAtFixedRate(new TimerTask() {
+		Crumble () {
+			animation = new Animation() {
 				@Override
-				public void run(){
-					changeImg(i, j);
+				public void show(int frame) {
+					grid.setTerrain(col, row, frame);
 				}
-			}, 0, Explosion.expLife/2);			
-		}
-		
-		if (!positionsTimerRunning[i][j]) {
-			positionsTimerRunning[i][j] = true;
-			Timer destrTimer = new Timer();
-			destrTimer.schedule(new TimerTask() {
+			};
+			removal = new TickTask() {
 				@Override
 				public void run(){
-					positions[i][j] = null;
-					positionsTimerRunning[i][j] = false;
-					imgPositionsTimerRunning[i][j] = false;
+					animation.stop();
+					grid.setTerrain(col, row, TileGrid.EMPTY);
 					if (pwrUpRandom <= POWER_UP_RATE) {
-						gameBoard.newPowerUp(i, j, (i*Board.TILE_SIZE)+Board.TILE_SIZE+Board.GAP_WIDTH, (j*Board.TILE_SIZE)+Board.TILE_SIZE);
+						game.newPowerUp(col, row);
 					}
-		    	}
-			},Explosion.expLife);
-		}
-	}
-	
-	/**
-	 * Animation logic.
-	 * @param i Index i
-	 * @param j Index j
-	 */
-	private void changeImg (int i, int j) {
-		if (imgPositions[i][j] == img) {
-			imgPositions[i][j] = imgDestr;
+					crumblePool.push(Crumble.this);
+				}
+			};
 		}
-		else if (imgPositions[i][j] == imgDestr) {
-			imgPositions[i][j] = imgDestr1;
+		
+		void start (int col, int row, double pwrUpRandom) {
+			this.col = col;
+			this.row = row;
+			this.pwrUpRandom = pwrUpRandom;
+			game.getAnimator().play(animation, game.getAnimator().WALL_CRUMBLE, 0);
+			game.getScheduler().schedule(removal, GameLoop.millisToTicks(EXPLOSION_LIFE));
 		}
 	}
 
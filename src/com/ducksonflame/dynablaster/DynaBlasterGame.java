@@ -1,23 +1,88 @@
 package com.ducksonflame.dynablaster;
 import javax.swing.JFrame;
 import java.awt.EventQueue;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Main game class. Only starts a frame in a separate thread and sets it visible.
+ * Main game class. Reads the GameConfig from the command line (--config=file, --key=value), warms up the sprite cache,
+ * then starts a frame in a separate thread and sets it visible.
+ * <br>Match logs: --record=file records every match (see MatchRecorder), --replay=file shows a recorded match instead,
+ * --replay=file --headless plays it back without a window as fast as possible and prints the result.
  * @version 1.0
  * @author DucksOnFlame
  */
 public class DynaBlasterGame {
 
-	public static void main(String[] args) {
-		    
+	public static void main(String[] args) throws IOException {
+		
+		//Match log flags, everything else is a setting
+		String recordPath = null;
+		String replayPath = null;
+		boolean headless = false;
+		List<String> settings = new ArrayList<String>();
+		for (String arg : args) {
+			if (arg.startsWith("--record=")) {
+				recordPath = arg.substring("--record=".length());
+			}
+			else if (arg.startsWith("--replay=")) {
+				replayPath = arg.substring("--replay=".length());
+			}
+			else if (arg.equals("--headless")) {
+				headless = true;
+			}
+			else {
+				settings.add(arg);
+			}
+		}
+		
+		if (replayPath != null) {
+			MatchReplay replay = MatchReplay.open(replayPath);
+			if (headless) {
+				replayHeadless(replay);
+				return;
+			}
+			Sprites.preload(replay.getConfig().getTileSize());
+			EventQueue.invokeLater(new Runnable() {
+			    @Override
+			    public void run() {
+			        JFrame dyna = new MyFrame(replay);
+			        dyna.setVisible(true);
+			    }
+			});
+			return;
+		}
+		
+		GameConfig config = GameConfig.fromArgs(settings.toArray(new String[settings.size()]));
+		Sprites.preload(config.getTileSize());
+		String record = recordPath;
+		
 		EventQueue.invokeLater(new Runnable() {
 		    @Override
 		    public void run() {
-		        JFrame dyna = new MyFrame();
+		        JFrame dyna = new MyFrame(config, record);
 		        dyna.setVisible(true);
 		    }
 		});
 	}
 	
+	/**
+	 * Plays a replay without a window and prints the result, speed and the checkpoints verified (or where it desynced).
+	 */
+	private static void replayHeadless (MatchReplay replay) {
+		long start = System.nanoTime();
+		try {
+			Game game = replay.play();
+			double seconds = (System.nanoTime() - start) / 1e9;
+			double gameSeconds = game.getTick() / (double)GameLoop.TICK_RATE;
+			System.out.println("Seed " + game.getSeed() + ": " + game.getTick() + " ticks"
+					+ (game.isOver() ? ", player " + game.getWinner() + " wins" : ", recording ends before the match does"));
+			System.out.println(String.format("Replayed in %.3f s (%.0f ticks/s, %.0fx real time), %d checkpoints verified",
+					seconds, game.getTick() / seconds, gameSeconds / seconds, replay.getCheckpoints()));
+		} catch (IllegalStateException e) {
+			System.out.println(e.getMessage() + " - " + replay.getCheckpoints() + " checkpoints verified before");
+		}
+	}
+	
 }
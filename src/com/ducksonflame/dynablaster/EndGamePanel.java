@@ -19,16 +19,19 @@ public class EndGamePanel extends JPanel implements KeyListener {
 	
 	private MyFrame myFrame;
 	private int winner;
+	private Dimension size;
 	
 	/**
 	 * Constructor sets JFrame reference and takes information about the winner.
 	 * @param f JFrame reference
 	 * @param winner Winning player number
+	 * @param size Size of the Board the panel replaces
 	 */
-	public EndGamePanel(MyFrame f, int winner) {
+	public EndGamePanel(MyFrame f, int winner, Dimension size) {
 		
 		myFrame = f;
 		this.winner = winner;
+		this.size = size;
 		initUI();
 		
 	}
@@ -38,7 +41,7 @@ public class EndGamePanel extends JPanel implements KeyListener {
 	 */
 	public void initUI() {
 		
-		setPreferredSize(new Dimension((int)((2*Board.NUMBER_OF_FREE_COLUMNS)+1)*Board.TILE_SIZE + 2*Board.GAP_WIDTH, (int)((2*Board.NUMBER_OF_FREE_ROWS)+1)*Board.TILE_SIZE));
+		setPreferredSize(size);
 		setLayout(new GridLayout(10,1));
 		addKeyListener(this);
 		setBackground(Color.WHITE);
@@ -1,64 +1,58 @@
 package com.ducksonflame.dynablaster;
-import java.awt.Image;
-import java.util.TimerTask;
-import java.util.Timer;
-
-import javax.swing.ImageIcon;
-import javax.swing.JComponent;
 
 /**
  * Class handling explosions and their lifetime.
- * Implements Comparable for proper handling in Board class. 
- * expLife can be modified to change the time that the explosion is active.
+ * Explosions are pooled by the Game: an instance (with its end task) is created once and started again after it ended.
+ * The time that the explosion is active is the explosionLife setting of the game's GameConfig. The end is scheduled on the game's TickScheduler.
  * Range is remembered from the moment of bomb placement not explosion time.
+ * <br>The rays are resolved once, when the bomb detonates. getReach(direction) tells how many tiles each ray covers - the renderer
+ * draws exactly those tiles and the game marks exactly those tiles as burning.
  */
 
-@SuppressWarnings("serial")
-public class Explosion extends JComponent implements Comparable<Explosion> {
-	//Images for the middle tile and vertical/horizontal "arm" tiles
-	public final Image mid = new ImageIcon("images/explosionMid_"+Board.TILE_SIZE+".png").getImage();
-	public final Image vert = new ImageIcon("images/explosionVertical_"+Board.TILE_SIZE+".png").getImage();
-	public final Image hori = new ImageIcon("images/explosionHorizontal_"+Board.TILE_SIZE+".png").getImage();
-	
-	//Images for last tiles at each end.
-	public final Image endUp = new ImageIcon("images/explosionEndUp_"+Board.TILE_SIZE+".png").getImage();
-	public final Image endDown = new ImageIcon("images/explosionEndDown_"+Board.TILE_SIZE+".png").getImage();
-	public final Image endRight = new ImageIcon("images/explosionEndRight_"+Board.TILE_SIZE+".png").getImage();
-	public final Image endLeft = new ImageIcon("images/explosionEndLeft_"+Board.TILE_SIZE+".png").getImage();
-	
-	//Modifiable to extend/reduce explosion's life.
-	public final static int expLife = 350;
+public class Explosion implements Comparable<Explosion> {
+	//Ray directions with their column/row steps
+	public static final int UP = 0;
+	public static final int RIGHT = 1;
+	public static final int DOWN = 2;
+	public static final int LEFT = 3;
+	public static final int[] STEP_COL = {0, 1, 0, -1};
+	public static final int[] STEP_ROW = {-1, 0, 1, 0};
 
 	private int x;
 	private int y;
 	private int range;
 	private int id;
-	private Timer expTimer;
-	public static int expID = 1;
-	private Board gameBoard;
+	private final int[] reach = new int[4];
+	int slot; //Index in the Game's list of live explosions
+	private final TickTask expTimer;
+	private final Game game;
+	
+	/**
+	 * Creates an explosion that is not started yet, with its end task. Used by the Game's pool.
+	 * @param game Game model reference
+	 */
+	Explosion(Game game) {
+		this.game = game;
+		expTimer = new TickTask() {
+			@Override
+			public void run(){
+				game.endExplosion(Explosion.this);
+			}
+		};
+	}
 	
 	/**
-	 * Assigns ID and other properties. Starts timer for explosion's end.
+	 * Assigns ID and other properties. Schedules the explosion's end. The reach is set by the Game right after.
 	 * @param x X coordinate
 	 * @param y Y coordinate
 	 * @param range Range from bomb placement time
-	 * @param game Main game reference
 	 */
-	public Explosion(int x, int y, int range, Board game) {
-		gameBoard = game;
+	void start(int x, int y, int range) {
 		this.x = x;
 		this.y = y;
 		this.range = range;
-		this.id = expID;
-		expID++;
-		
-		expTimer = new Timer();
-		expTimer.schedule(new TimerTask() {
-			@Override
-			public void run(){
-				gameBoard.endExplosion();				
-	    	}
-		},expLife);
+		this.id = game.nextExplosionId();
+		game.getScheduler().schedule(expTimer, GameLoop.millisToTicks(game.getConfig().getExplosionLife()));
 	}
 	
 	public int getX() {
@@ -73,6 +67,18 @@ public class Explosion extends JComponent implements Comparable<Explosion> {
 		return range;
 	}
 	
+	/**
+	 * @param direction One of UP, RIGHT, DOWN, LEFT
+	 * @return Returns the number of tiles covered by the ray (0 if it is blocked right away).
+	 */
+	public int getReach(int direction) {
+		return reach[direction];
+	}
+	
+	void setReach(int direction, int tiles) {
+		reach[direction] = tiles;
+	}
+	
 	@Override
 	public int compareTo(Explosion other) {
 		return id - other.id;
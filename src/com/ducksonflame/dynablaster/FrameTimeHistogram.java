@@ -0,0 +1,90 @@
+package com.ducksonflame.dynablaster;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of frame times (time between two presented frames) with fixed 50 microsecond buckets up to 100 ms.
+ * Recording is O(1) and allocation free, so it can be left on in the render path.
+ * <br>Used to compare the passive (Swing Timer) and active (BufferStrategy) rendering modes, e.g. by their p99.
+ */
+public class FrameTimeHistogram {
+
+	private static final long BUCKET_NANOS = 50000;
+	private static final int BUCKETS = 2000; //Last bucket collects everything above 100 ms
+
+	private final long[] counts = new long[BUCKETS];
+	private long count;
+	private long totalNanos;
+	private long maxNanos;
+	private long lastFrame;
+
+	/**
+	 * Records the time since the previous call. The first call only starts the clock.
+	 * @param now Current System.nanoTime()
+	 */
+	public synchronized void frame (long now) {
+		if (lastFrame != 0) {
+			record(now - lastFrame);
+		}
+		lastFrame = now;
+	}
+
+	/**
+	 * @param nanos Frame time in nanoseconds
+	 */
+	public synchronized void record (long nanos) {
+		int bucket = (int)Math.min(BUCKETS-1, Math.max(0, nanos / BUCKET_NANOS));
+		counts[bucket]++;
+		count++;
+		totalNanos += nanos;
+		maxNanos = Math.max(maxNanos, nanos);
+	}
+
+	/**
+	 * @param percentile Percentile between 0 and 100
+	 * @return Returns the upper bound of the bucket holding the given percentile in nanoseconds (0 if nothing was recorded).
+	 */
+	public synchronized long getPercentile (double percentile) {
+		if (count == 0) {
+			return 0;
+		}
+		long rank = (long)Math.ceil(count * percentile / 100.0);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= Math.max(1, rank)) {
+				return (i == BUCKETS-1) ? maxNanos : (i+1)*BUCKET_NANOS;
+			}
+		}
+		return maxNanos;
+	}
+
+	public synchronized long getCount () {
+		return count;
+	}
+
+	public synchronized long getMeanNanos () {
+		return (count == 0) ? 0 : totalNanos / count;
+	}
+
+	public synchronized long getMaxNanos () {
+		return maxNanos;
+	}
+
+	public synchronized void reset () {
+		Arrays.fill(counts, 0);
+		count = 0;
+		totalNanos = 0;
+		maxNanos = 0;
+		lastFrame = 0;
+	}
+
+	/**
+	 * @return Returns a one line summary in milliseconds: frames, mean, p50, p90, p99, max.
+	 */
+	@Override
+	public synchronized String toString () {
+		return String.format("frames %d, mean %.2f ms, p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms",
+				count, getMeanNanos()/1e6, getPercentile(50)/1e6, getPercentile(90)/1e6, getPercentile(99)/1e6, maxNanos/1e6);
+	}
+}
@@ -0,0 +1,470 @@
+package com.ducksonflame.dynablaster;
+
+import java.util.*;
+
+/**
+ * Headless game model - the whole simulation without any AWT/Swing dependency.
+ * The match is advanced only through step(inputs), one call per GameLoop tick, so it can be run by the Board, a test harness or a batch of matches.
+ * <br>Single writer: only the thread calling step (the GameLoop) touches the model. Other threads read the immutable GameSnapshot
+ * published at the end of every step.
+ * <br>Positions are in model pixels: the arena (outer walls included) starts at (0, 0). The Board adds GAP_WIDTH when drawing.
+ * <br>Settings (arena size, tile size, players, starting stats...) come from the GameConfig passed to the constructor,
+ * so matches with different settings can run side by side.
+ * <br>All randomness (wall spawning, powerUp drops and types) comes from one SplittableRandom per match. Its seed is recorded in getConfig(),
+ * so a match can be reproduced exactly from its config and inputs, and parallel matches share no random number generator.
+ */
+public class Game {
+
+	//Settings
+	public static final int MAX_PLAYERS = 4;
+	private final GameConfig config;
+	private final int TILE_SIZE;
+
+	//Input bits, one int per player and tick
+	public static final int UP = 1;
+	public static final int DOWN = 2;
+	public static final int LEFT = 4;
+	public static final int RIGHT = 8;
+	public static final int BOMB = 16;
+
+	//Random numbers of the match, only used by the thread calling step
+	private final SplittableRandom random;
+
+	//Scheduler for all deferred game events and player of all sprite animations. Both advanced once per step.
+	private final TickScheduler scheduler = new TickScheduler();
+	private final Animator animator;
+
+	//Arena: one short per tile, plus side arrays for the objects that own timers
+	private final TileGrid grid;
+	private final Bomb[] bombs;
+	private final PowerUp[] powerUps;
+	private final ArrayList<Bomb> liveBombs = new ArrayList<Bomb>(); //Bombs on the grid, in no particular order (Bomb.slot is the index)
+	private final long[] burningUntil; //Tick at which the fire on the tile goes out
+
+	//Characters (p1 and p2 are shortcuts for players[0] and players[1])
+	public final Character p1;
+	public final Character p2;
+	private final Character[] players;
+	private int alive;
+
+	//Live explosions (in no particular order, Explosion.slot is the index), pending detonations and Destructible walls
+	private ArrayList<Explosion> explosions = new ArrayList<Explosion>();
+	private PriorityQueue<Bomb> detonations = new PriorityQueue<Bomb>(); //Ordered by fuse tick, then id
+	public final DestrWalls dW;
+
+	//Pools of spent entities, reused instead of allocating one per bomb, explosion and powerUp
+	private final ArrayDeque<Bomb> bombPool = new ArrayDeque<Bomb>();
+	private final ArrayDeque<Explosion> explosionPool = new ArrayDeque<Explosion>();
+	private final ArrayDeque<PowerUp> powerUpPool = new ArrayDeque<PowerUp>();
+
+	//Match state
+	private long tick;
+	private volatile boolean over = false;
+	private volatile int winner;
+	private int bombID = 1;
+	private int expID = 1;
+	private volatile GameSnapshot snapshot;
+
+	/**
+	 * Creates a match with the default settings (two players).
+	 */
+	public Game () {
+		this(GameConfig.defaults());
+	}
+
+	/**
+	 * Creates a match for config.getPlayers() players. Players spawn in the corners: top left, bottom right, top right, bottom left.
+	 * If the config has no seed a new one is picked and recorded in getConfig().
+	 * @param config Settings of the match
+	 */
+	public Game (GameConfig config) {
+		this.config = config.hasSeed() ? config : config.with("seed", String.valueOf(new SplittableRandom().nextLong()));
+		random = new SplittableRandom(this.config.getSeed());
+		animator = new Animator(config);
+		TILE_SIZE = config.getTileSize();
+		grid = new TileGrid(config.getColumns(), config.getRows());
+		bombs = new Bomb[grid.getColumns()*grid.getRows()];
+		powerUps = new PowerUp[grid.getColumns()*grid.getRows()];
+		burningUntil = new long[grid.getColumns()*grid.getRows()];
+		dW = new DestrWalls(this, grid);
+
+		players = new Character[config.getPlayers()];
+		for (int i = 0; i < players.length; i++) {
+			players[i] = new Character(i+1, this);
+		}
+		p1 = players[0];
+		p2 = players[1];
+		alive = players.length;
+		snapshot = new GameSnapshot(tick, grid, players, explosions, snapshot);
+	}
+
+	/**
+	 * Advances the whole game by one tick.
+	 * Order: player input (movement, bomb placement), animations, scheduled tasks (fuses, explosion ends, wall and powerUp removal),
+	 * detonations (whole chains), fire checks.
+	 * @param inputs Input bitmask per player (index 0 is player 1)
+	 */
+	public void step (int[] inputs) {
+		if (over) {
+			return;
+		}
+		tick++;
+		grid.setStamp(tick);
+		for (int i = 0; i < players.length; i++) {
+			if (players[i].isAlive()) {
+				players[i].step(inputs[i]);
+			}
+		}
+		animator.advance();
+		scheduler.advance();
+		resolveDetonations();
+		fireCheck();
+		snapshot = new GameSnapshot(tick, grid, players, explosions, snapshot);
+	}
+
+	/**
+	 * Digest of the match state: grid, players (position, stats, alive) and number of explosions.
+	 * Used by replay checkpoints to detect a desync - equal games give equal values.
+	 * @return Returns the checksum.
+	 */
+	public int checksum () {
+		int hash = 31*grid.hashCode() + explosions.size();
+		for (int i = 0; i < players.length; i++) {
+			Character c = players[i];
+			hash = 31*hash + c.getX();
+			hash = 31*hash + c.getY();
+			hash = 31*hash + c.getRange();
+			hash = 31*hash + c.getVelocity();
+			hash = 31*hash + c.getBombsPlaced();
+			hash = 31*hash + (c.isAlive() ? 1 : 0);
+		}
+		return hash;
+	}
+
+	/**
+	 * Cancels every scheduled task and stops the animations. Called when the match is torn down.
+	 */
+	public void dispose () {
+		scheduler.cancel();
+		animator.dispose();
+	}
+
+	/**
+	 * Adds a bomb to the detonation queue. Called by Bomb.boom (fuse ran out or hit by a ray).
+	 * @param b Bomb to detonate
+	 */
+	public void queueDetonation (Bomb b) {
+		detonations.add(b);
+	}
+	
+	/**
+	 * Detonates every queued bomb, including all bombs they set off, within the current tick.
+	 * Bombs are processed in order of fuse tick, then id, so the result does not depend on the order the fuse tasks ran in.
+	 * Each bomb is removed from its own tile and each tile is visited once per ray, so a whole cascade is O(affected tiles).
+	 */
+	public void resolveDetonations () {
+		Bomb b;
+		while ((b = detonations.poll()) != null) {
+			removeBomb(b);
+			b.getOwner().bombExploded();
+			newExplosion(b.getX(), b.getY(), b.getRange());
+			bombPool.push(b);
+		}
+	}
+
+	/**
+	 * 
+	 * @param x Takes the x position of the exploding bomb
+	 * @param y Takes the y position of the exploding bomb
+	 * @param range Takes the bomb's range
+	 * 
+	 * Method should only be invoked for exploding bombs. Note that the range is taken from the bomb not directly from the player.
+	 * This means the range of the explosion is taken from the moment of bomb placement and is not affected by later rangeUp pickups.
+	 * Bombs reached by a ray are queued and detonated by resolveDetonations.
+	 */
+	public void newExplosion (int x, int y, int range) {
+		int col = x/TILE_SIZE;
+		int row = y/TILE_SIZE;
+		Explosion e = explosionPool.poll();
+		if (e == null) {
+			e = new Explosion(this);
+		}
+		e.start(x, y, range);
+		e.slot = explosions.size();
+		explosions.add(e);
+		grid.setExplosion(col, row, true);
+		setOnFire(col, row);
+		for (int d = 0; d < 4; d++) {
+			e.setReach(d, propagate(col, row, d, range));
+		}
+	}
+
+	/**
+	 * Gets rid of the given explosion when its lifetime is over and returns it to the pool. The tiles it covered are marked as changed for the renderer.
+	 * @param e Expiring explosion
+	 */
+	public void endExplosion (Explosion e) {
+		int col = e.getX()/TILE_SIZE;
+		int row = e.getY()/TILE_SIZE;
+		Explosion last = explosions.remove(explosions.size()-1); //Swap-remove, no search
+		if (last != e) {
+			explosions.set(e.slot, last);
+			last.slot = e.slot;
+		}
+		grid.setExplosion(col, row, false);
+		for (int d = 0; d < 4; d++) {
+			for (int i = 1; i <= e.getReach(d); i++) {
+				grid.touch(col + i*Explosion.STEP_COL[d], row + i*Explosion.STEP_ROW[d]);
+			}
+		}
+		explosionPool.push(e);
+	}
+	
+	/**
+	 * Walks a single explosion ray once, at detonation. Walls crumble and PowerUps burn as they are reached, bombs are queued for detonation.
+	 * Walls and PowerUps stop the ray, bombs do not. Rays running along a row or column of pillars are blocked right away.
+	 * Cost is O(range).
+	 * @param col Column of the explosion center
+	 * @param row Row of the explosion center
+	 * @param direction One of Explosion.UP, RIGHT, DOWN, LEFT
+	 * @param range Explosion range
+	 * @return Returns the number of tiles the ray covers.
+	 */
+	private int propagate (int col, int row, int direction, int range) {
+		int stepCol = Explosion.STEP_COL[direction];
+		int stepRow = Explosion.STEP_ROW[direction];
+		if ((stepCol != 0 && row % 2 == 0) || (stepRow != 0 && col % 2 == 0)) {
+			return 0;
+		}
+		
+		int reach = 0;
+		for (int i = 1; i <= range; i++) {
+			int c = col + i*stepCol;
+			int r = row + i*stepRow;
+			
+			if (grid.getTerrain(c, r) == TileGrid.OUTER_WALL) {
+				break;
+			}
+			else if (grid.isWall(c, r)) {
+				dW.crumble(c, r);
+				break;
+			}
+			else if (grid.getPowerUp(c, r) != 0) {
+				powerUps[grid.index(c, r)].burn();
+				break;
+			}
+			
+			reach = i;
+			setOnFire(c, r);
+			if (grid.hasBomb(c, r)) {
+				bombs[grid.index(c, r)].boom();
+			}
+		}
+		return reach;
+	}
+	
+	/**
+	 * Marks the tile as burning for the lifetime of an explosion started this tick (and as changed for the renderer).
+	 */
+	private void setOnFire (int col, int row) {
+		int i = grid.index(col, row);
+		burningUntil[i] = Math.max(burningUntil[i], tick + GameLoop.millisToTicks(config.getExplosionLife()));
+		grid.touch(col, row);
+	}
+	
+	/**
+	 * @return Returns true if the tile is covered by a live explosion.
+	 */
+	public boolean isBurning (int col, int row) {
+		return burningUntil[grid.index(col, row)] > tick;
+	}
+
+	/**
+	 * Method invoked every step. Kills every living player standing on a burning tile.
+	 * Players are checked in order, so if the last ones die in the same tick the one checked last wins (no logic for draws yet).
+	 */
+	public void fireCheck () {
+		for (Character c : players) {
+			if (c.isAlive() && isBurning(c.getTileX()/TILE_SIZE, c.getTileY()/TILE_SIZE)) {
+				c.kill();
+			}
+		}
+	}
+
+	/**
+	 * Places a bomb for the player unless the tile already holds one.
+	 * @param p Player placing the bomb
+	 * @param x X coordinate of the tile
+	 * @param y Y coordinate of the tile
+	 * @return Returns true if the bomb was placed.
+	 */
+	public boolean placeBomb (Character p, int x, int y) {
+		int col = x/TILE_SIZE;
+		int row = y/TILE_SIZE;
+		if (grid.hasBomb(col, row)) {
+			return false;
+		}
+		grid.setBomb(col, row, true);
+		Bomb b = bombPool.poll();
+		if (b == null) {
+			b = new Bomb(this);
+		}
+		b.place(x, y, p);
+		bombs[grid.index(col, row)] = b;
+		b.slot = liveBombs.size();
+		liveBombs.add(b);
+		return true;
+	}
+
+	/**
+	 * Takes the exploding bomb off the grid. Called by the Bomb.
+	 * @param b Exploding bomb
+	 */
+	public void removeBomb (Bomb b) {
+		int col = b.getX()/TILE_SIZE;
+		int row = b.getY()/TILE_SIZE;
+		if (bombs[grid.index(col, row)] == b) {
+			bombs[grid.index(col, row)] = null;
+			grid.setBomb(col, row, false);
+			Bomb last = liveBombs.remove(liveBombs.size()-1); //Swap-remove, no search
+			if (last != b) {
+				liveBombs.set(b.slot, last);
+				last.slot = b.slot;
+			}
+		}
+	}
+
+	/**
+	 * Drops a PowerUp (a pooled one if available) if called by a destroyed wall.
+	 * @param col Column used for further reference (e.g. when picked up)
+	 * @param row Row used for further reference (e.g. when picked up)
+	 */
+	public void newPowerUp (int col, int row) {
+		if (grid.getPowerUp(col, row) == 0) {
+			PowerUp pU = powerUpPool.poll();
+			if (pU == null) {
+				pU = new PowerUp(this);
+			}
+			pU.drop(col, row);
+			powerUps[grid.index(col, row)] = pU;
+		}
+	}
+
+	/**
+	 * Called by Character instance. Collision checked in the Character class. Removes the PowerUp from the grid after pickup and returns it to the pool.
+	 * @param col Column for identification of proper instance.
+	 * @param row Row for identification of proper instance.
+	 */
+	public void powerUpPickUp (int col, int row) {
+		int i = grid.index(col, row);
+		if (powerUps[i] != null) {
+			powerUps[i].dispose();
+			powerUpPool.push(powerUps[i]);
+		}
+		powerUps[i] = null;
+		grid.setPowerUp(col, row, 0);
+	}
+
+	/**
+	 * Called by a Character when it gets killed. Ends the game once at most one player is left - the survivor wins.
+	 * Currently no logic for draws: if the last players die in the same tick, the one killed last wins (player 2 in a two player match).
+	 * @param playerNo Number of the killed player
+	 */
+	public void playerKilled (int playerNo) {
+		if (over) {
+			return;
+		}
+		alive--;
+		if (alive > 1) {
+			return;
+		}
+		winner = playerNo;
+		for (Character c : players) {
+			if (c.isAlive()) {
+				winner = c.getPlayerNumber();
+			}
+		}
+		over = true;
+	}
+
+	int nextBombId () {
+		return bombID++;
+	}
+
+	int nextExplosionId () {
+		return expID++;
+	}
+
+	/**
+	 * @return Returns the settings of the match, seed included.
+	 */
+	public GameConfig getConfig () {
+		return config;
+	}
+
+	/**
+	 * @return Returns the seed of the match's random numbers.
+	 */
+	public long getSeed () {
+		return config.getSeed();
+	}
+
+	/**
+	 * @return Returns the random number generator of the match. Not thread safe, only for use from step.
+	 */
+	SplittableRandom getRandom () {
+		return random;
+	}
+
+	public TickScheduler getScheduler () {
+		return scheduler;
+	}
+
+	public Animator getAnimator () {
+		return animator;
+	}
+
+	public Character[] getPlayers () {
+		return players;
+	}
+
+	public Collection<Explosion> getExplosions () {
+		return explosions;
+	}
+
+	/**
+	 * @return Returns the bombs on the grid (live view, in no particular order).
+	 */
+	public List<Bomb> getBombs () {
+		return liveBombs;
+	}
+
+	public TileGrid getGrid () {
+		return grid;
+	}
+
+	/**
+	 * @return Returns the state published at the end of the last step. Safe to call from any thread.
+	 */
+	public GameSnapshot getSnapshot () {
+		return snapshot;
+	}
+
+	public boolean isOver () {
+		return over;
+	}
+
+	/**
+	 * @return Returns the number of the winning player, 0 while the match is running.
+	 */
+	public int getWinner () {
+		return winner;
+	}
+
+	/**
+	 * @return Number of steps simulated so far.
+	 */
+	public long getTick () {
+		return tick;
+	}
+}
@@ -0,0 +1,140 @@
+package com.ducksonflame.dynablaster;
+import java.awt.Canvas;
+import java.awt.Graphics;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.awt.DisplayMode;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Active rendering surface used instead of the Swing repaint Timer when the activeRendering setting is on.
+ * A dedicated render thread brings the Board's composed frame up to date with the latest GameSnapshot (only changed tiles are redrawn)
+ * and blits it into a BufferStrategy (renderBuffers buffers, see GameConfig) and flips it,
+ * paced to the display refresh rate (60Hz if unknown) independently of the GameLoop's TICK_RATE.
+ * <br>Player positions are interpolated between the last two ticks using GameLoop.getAlpha.
+ * <br>The canvas only draws - keys go to the Board's KeyboardInput and the game is still advanced by the GameLoop.
+ */
+@SuppressWarnings("serial")
+public class GameCanvas extends Canvas implements Runnable {
+
+	private static final int DEFAULT_REFRESH_RATE = 60;
+
+	private final Board board;
+	private Thread thread;
+	private volatile boolean running;
+
+	/**
+	 * @param board Board providing the game, the drawing code and the key listener
+	 */
+	public GameCanvas (Board board) {
+		this.board = board;
+		setPreferredSize(board.getPreferredSize());
+		setIgnoreRepaint(true);
+		setFocusable(true);
+		addKeyListener(board.getKeyboard());
+		addFocusListener(board.getKeyboard());
+	}
+
+	/**
+	 * Starts rendering once the canvas is displayable (a BufferStrategy needs a native peer).
+	 */
+	@Override
+	public void addNotify () {
+		super.addNotify();
+		createBufferStrategy(board.getConfig().getRenderBuffers());
+		start();
+		requestFocusInWindow();
+	}
+
+	/**
+	 * Stops rendering before the native peer (and with it the BufferStrategy) goes away.
+	 */
+	@Override
+	public void removeNotify () {
+		stop();
+		super.removeNotify();
+	}
+
+	private synchronized void start () {
+		if (running) {
+			return;
+		}
+		running = true;
+		thread = new Thread(this, "DynaBlaster-render");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the render thread and waits for the frame in progress to finish. Every caller waits, not only the first one,
+	 * so the frame time histogram is complete once stop returns.
+	 */
+	public void stop () {
+		Thread t;
+		synchronized (this) {
+			running = false;
+			t = thread;
+		}
+		if (t != null && t != Thread.currentThread()) {
+			LockSupport.unpark(t);
+			try {
+				t.join(1000); //Bounded, removeNotify calls stop with the tree lock held
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public void run () {
+		BufferStrategy strategy = getBufferStrategy();
+		long frameNanos = 1000000000L / refreshRate();
+		long next = System.nanoTime();
+
+		while (running) {
+			try {
+				renderFrame(strategy);
+			}
+			catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+			long now = System.nanoTime();
+			board.getFrameTimes().frame(now);
+
+			next += frameNanos;
+			if (now - next > frameNanos) {
+				next = now; //Fell more than a frame behind - drop the missed frames instead of rushing them
+			}
+			LockSupport.parkNanos(next - System.nanoTime());
+		}
+	}
+
+	/**
+	 * Updates the composed frame and shows it. The whole frame is blitted, since flipped buffers hold older frames. Redraws if the buffer contents were lost or restored in the meantime.
+	 */
+	private void renderFrame (BufferStrategy strategy) {
+		do {
+			do {
+				Graphics g = strategy.getDrawGraphics();
+				try {
+					board.updateFrame(board.getGame().getSnapshot(), board.getAlpha());
+					g.drawImage(board.getFrame(), 0, 0, null);
+				} finally {
+					g.dispose();
+				}
+			} while (strategy.contentsRestored());
+			strategy.show();
+		} while (strategy.contentsLost());
+		Toolkit.getDefaultToolkit().sync();
+	}
+
+	private int refreshRate () {
+		GraphicsDevice device = (getGraphicsConfiguration() != null)
+				? getGraphicsConfiguration().getDevice()
+				: GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice();
+		int rate = device.getDisplayMode().getRefreshRate();
+		return (rate == DisplayMode.REFRESH_RATE_UNKNOWN) ? DEFAULT_REFRESH_RATE : rate;
+	}
+}
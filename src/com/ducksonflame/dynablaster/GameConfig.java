@@ -0,0 +1,483 @@
+package com.ducksonflame.dynablaster;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Immutable game settings, passed to the Game (and the Board) instead of compile-time constants,
+ * so differently sized arenas can run side by side in one JVM.
+ * <br>Values are read from a properties or JSON file, command line flags (--key=value, --config=file) or code (with(key, value)).
+ * A key that is not given falls back to the system property dynablaster.key and then to the default below. Unknown keys are rejected.
+ * <br><br>Settings:
+ * <br><br>tileSize - Size of a Tile in pixels. Images are shipped for 50 and 100 (for 1080p screens and below suggested is 50). Must be even. (default is 100)
+ * <br>columns - Number of free columns (default is 8).
+ * <br>rows - Number of free rows (default is 6).
+ * <br>players - Number of players, 2 to Game.MAX_PLAYERS (default is 2).
+ * <br>movementErrorMargin - Tolerance for player movement collision. Allows for non-pixelperfect movement. (default is 50).
+ * <br>initialMaxBombs - Initial maximum number of bombs that can be placed by a player (default is 4).
+ * <br>initialRange - Initial range of explosions for players (default is 2).
+ * <br>initialCharTimerSpeed - Initial pace of players: time (ms) to move 1/50 of a tile, converted to a velocity in sub-pixels per tick.
+ * The lower the higher speed. Every speedUp takes 1 ms off, down to 3. Intended, non-linear progression. (default is 8)
+ * <br>spawnRate - Dictates how many Destructible Walls are created (suggested is 0.9). 1 means all eligible tiles are filled (except for the corners). (default is 0)
+ * <br>powerUpRate - Sets rate at which powerUps are created after destroying walls (default is 0.2).
+ * <br>bombChangeDelay - Bomb animation speed in ms (default is 500).
+ * <br>bombFuse - Time from placement to explosion in ms, rounded to whole animation changes (default is 3000).
+ * <br>explosionLife - Time the explosion is active in ms (default is 350).
+ * <br>rangeChance, speedChance - Chances for rangeUp and speedUp powerUps, at most 1 together. Chance for bombsUp is 1 - (rangeChance + speedChance). (default is 0.33 each)
+ * <br>seed - Seed of the match's random numbers (walls, powerUp drops and types). The same seed and inputs give the same match. 
+ * (default is a new seed per match, recorded in Game.getConfig())
+ * <br>gapWidth - Size of the gap between left/right edges and the outside walls. Only cosmetics. (default is tileSize)
+ * <br>viewColumns, viewRows - Size of the visible part of the arena in tiles, outer walls included. Larger arenas scroll with the camera. (default is 17 x 13, the whole default arena)
+ * <br>camera - What the view follows on arenas larger than the view: a player number, "midpoint" (of all living players) or "split"
+ * (split-screen, one view per player, side by side for two players and 2x2 for more). (default is 1)
+ * <br>activeRendering - Draw on a GameCanvas with its own render thread instead of the Swing repaint Timer (default is false).
+ * <br>renderBuffers - Number of buffers of the active rendering BufferStrategy, 2 or 3 (default is 3).
+ * <br>frameStats - Print the frame time histogram when the Board is disposed (default is false).
+ * <br>bots - Comma separated player numbers played by a ThreatBot instead of the keyboard, e.g. "2" or "2,3,4". The Tournament plays them with
+ * ThreatBots and every other player with a WanderBot. Replays ignore it, the recorded inputs already contain the bots' moves. (default is none)
+ */
+public final class GameConfig {
+
+	//Keys and default values (gapWidth defaults to tileSize, seed to a new one per match)
+	private static final String[][] DEFAULTS = {
+			{"tileSize", "100"},
+			{"columns", "8"},
+			{"rows", "6"},
+			{"players", "2"},
+			{"movementErrorMargin", "50"},
+			{"initialMaxBombs", "4"},
+			{"initialRange", "2"},
+			{"initialCharTimerSpeed", "8"},
+			{"spawnRate", "0"},
+			{"powerUpRate", "0.2"},
+			{"bombChangeDelay", "500"},
+			{"bombFuse", "3000"},
+			{"explosionLife", "350"},
+			{"rangeChance", "0.33"},
+			{"speedChance", "0.33"},
+			{"seed", null},
+			{"gapWidth", null},
+			{"viewColumns", "17"},
+			{"viewRows", "13"},
+			{"camera", "1"},
+			{"activeRendering", "false"},
+			{"renderBuffers", "3"},
+			{"frameStats", "false"},
+			{"bots", ""}};
+
+	private static final String SYSTEM_PROPERTY_PREFIX = "dynablaster.";
+
+	private final Properties values = new Properties();
+
+	private final int tileSize;
+	private final int columns;
+	private final int rows;
+	private final int players;
+	private final int movementErrorMargin;
+	private final int initialMaxBombs;
+	private final int initialRange;
+	private final int initialCharTimerSpeed;
+	private final double spawnRate;
+	private final double powerUpRate;
+	private final int bombChangeDelay;
+	private final int bombFuse;
+	private final int explosionLife;
+	private final double rangeChance;
+	private final double speedChance;
+	private final boolean seeded;
+	private final long seed;
+	private final int gapWidth;
+	private final int viewColumns;
+	private final int viewRows;
+	private final String camera;
+	private final boolean activeRendering;
+	private final int renderBuffers;
+	private final boolean frameStats;
+	private final int bots; //Bit per player index
+
+	/**
+	 * Resolves every setting (given value, system property or default) and validates it.
+	 * @param given Settings to use, missing keys fall back to the defaults
+	 */
+	private GameConfig (Properties given) {
+		for (String key : given.stringPropertyNames()) {
+			if (isKey(key) == false) {
+				throw new IllegalArgumentException("Unknown setting: " + key);
+			}
+		}
+		for (String[] entry : DEFAULTS) {
+			String value = given.getProperty(entry[0], System.getProperty(SYSTEM_PROPERTY_PREFIX + entry[0], entry[1]));
+			if (value != null) {
+				values.setProperty(entry[0], value.trim());
+			}
+		}
+
+		tileSize = getInt("tileSize", 2, 1000);
+		if (tileSize % 2 != 0) {
+			throw new IllegalArgumentException("tileSize must be even: " + tileSize);
+		}
+		columns = getInt("columns", 2, 4096);
+		rows = getInt("rows", 2, 4096);
+		players = getInt("players", 2, Game.MAX_PLAYERS);
+		movementErrorMargin = getInt("movementErrorMargin", 0, tileSize);
+		initialMaxBombs = getInt("initialMaxBombs", 1, 1000);
+		initialRange = getInt("initialRange", 1, 1000);
+		initialCharTimerSpeed = getInt("initialCharTimerSpeed", 1, 1000);
+		spawnRate = getDouble("spawnRate");
+		powerUpRate = getDouble("powerUpRate");
+		bombChangeDelay = getInt("bombChangeDelay", 1, 60000);
+		bombFuse = getInt("bombFuse", 1, 600000);
+		explosionLife = getInt("explosionLife", 1, 60000);
+		rangeChance = getDouble("rangeChance");
+		speedChance = getDouble("speedChance");
+		if (rangeChance + speedChance > 1) {
+			throw new IllegalArgumentException("rangeChance + speedChance must be at most 1: " + rangeChance + " + " + speedChance);
+		}
+		seeded = values.getProperty("seed") != null;
+		seed = seeded ? getLong("seed") : 0;
+		if (values.getProperty("gapWidth") == null) {
+			values.setProperty("gapWidth", String.valueOf(tileSize));
+		}
+		gapWidth = getInt("gapWidth", 0, 10000);
+		viewColumns = getInt("viewColumns", 1, 1000);
+		viewRows = getInt("viewRows", 1, 1000);
+		camera = values.getProperty("camera");
+		if (camera.equals("midpoint") == false && camera.equals("split") == false) {
+			getInt("camera", 1, players);
+		}
+		activeRendering = Boolean.parseBoolean(values.getProperty("activeRendering"));
+		renderBuffers = getInt("renderBuffers", 2, 3);
+		frameStats = Boolean.parseBoolean(values.getProperty("frameStats"));
+		int botMask = 0;
+		for (String player : values.getProperty("bots").split(",")) {
+			if (player.trim().isEmpty() == false) {
+				botMask |= 1 << (parseInt("bots", player.trim(), 1, players)-1);
+			}
+		}
+		bots = botMask;
+	}
+
+	/**
+	 * @return Returns the default configuration (system properties dynablaster.key still apply).
+	 */
+	public static GameConfig defaults () {
+		return new GameConfig(new Properties());
+	}
+
+	/**
+	 * @param properties Settings, missing keys fall back to the defaults
+	 * @return Returns the configuration.
+	 */
+	public static GameConfig fromProperties (Properties properties) {
+		return new GameConfig(properties);
+	}
+
+	/**
+	 * Loads a configuration file. Files ending with .json are read as a flat JSON object, everything else as properties.
+	 * @param path Configuration file
+	 * @return Returns the configuration.
+	 * @throws IOException If the file cannot be read
+	 */
+	public static GameConfig load (String path) throws IOException {
+		return new GameConfig(read(path));
+	}
+
+	/**
+	 * Builds the configuration from command line flags: --config=file loads a file first, then every --key=value overrides a setting.
+	 * Arguments that do not start with -- are ignored.
+	 * @param args Command line arguments
+	 * @return Returns the configuration.
+	 * @throws IOException If the configuration file cannot be read
+	 */
+	public static GameConfig fromArgs (String[] args) throws IOException {
+		Properties properties = new Properties();
+		for (String arg : args) {
+			if (arg.startsWith("--config=")) {
+				properties.putAll(read(arg.substring("--config=".length())));
+			}
+		}
+		for (String arg : args) {
+			if (arg.startsWith("--") && arg.startsWith("--config=") == false) {
+				int eq = arg.indexOf('=');
+				if (eq < 0) {
+					throw new IllegalArgumentException("Expected --key=value: " + arg);
+				}
+				properties.setProperty(arg.substring(2, eq), arg.substring(eq+1));
+			}
+		}
+		return new GameConfig(properties);
+	}
+
+	/**
+	 * @param key Setting name
+	 * @param value New value
+	 * @return Returns a copy of this configuration with one setting changed.
+	 */
+	public GameConfig with (String key, String value) {
+		Properties properties = toProperties();
+		properties.setProperty(key, value);
+		if (key.equals("tileSize") && properties.getProperty("gapWidth").equals(String.valueOf(tileSize))) {
+			properties.remove("gapWidth"); //Keep following the tile size
+		}
+		return new GameConfig(properties);
+	}
+
+	/**
+	 * @return Returns every setting as resolved (a copy), e.g. for recording the configuration next to a match.
+	 */
+	public Properties toProperties () {
+		Properties copy = new Properties();
+		copy.putAll(values);
+		return copy;
+	}
+
+	private static Properties read (String path) throws IOException {
+		if (path.toLowerCase().endsWith(".json")) {
+			return parseJson(new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8));
+		}
+		Properties properties = new Properties();
+		try (InputStream in = new FileInputStream(path)) {
+			properties.load(in);
+		}
+		return properties;
+	}
+
+	/**
+	 * Reads a flat JSON object ({"key": value, ...}) with number, boolean or string values. Nesting is not supported.
+	 */
+	static Properties parseJson (String json) {
+		Properties properties = new Properties();
+		String body = json.trim();
+		if (body.startsWith("{") == false || body.endsWith("}") == false) {
+			throw new IllegalArgumentException("Expected a JSON object");
+		}
+		body = body.substring(1, body.length()-1).trim();
+		int i = 0;
+		while (i < body.length()) {
+			if (body.charAt(i) != '"') {
+				throw new IllegalArgumentException("Expected a quoted key at: " + body.substring(i));
+			}
+			int keyEnd = body.indexOf('"', i+1);
+			String key = body.substring(i+1, keyEnd);
+			int colon = body.indexOf(':', keyEnd);
+			if (colon < 0) {
+				throw new IllegalArgumentException("Expected ':' after " + key);
+			}
+			i = colon+1;
+			while (i < body.length() && java.lang.Character.isWhitespace(body.charAt(i))) {
+				i++;
+			}
+			String value;
+			if (i < body.length() && body.charAt(i) == '"') {
+				int valueEnd = body.indexOf('"', i+1);
+				value = body.substring(i+1, valueEnd);
+				i = valueEnd+1;
+			}
+			else {
+				int valueEnd = body.indexOf(',', i);
+				if (valueEnd < 0) {
+					valueEnd = body.length();
+				}
+				value = body.substring(i, valueEnd).trim();
+				if (value.startsWith("{") || value.startsWith("[")) {
+					throw new IllegalArgumentException("Nested values are not supported: " + key);
+				}
+				i = valueEnd;
+			}
+			properties.setProperty(key, value);
+			while (i < body.length() && (body.charAt(i) == ',' || java.lang.Character.isWhitespace(body.charAt(i)))) {
+				i++;
+			}
+		}
+		return properties;
+	}
+
+	private static boolean isKey (String key) {
+		for (String[] entry : DEFAULTS) {
+			if (entry[0].equals(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int getInt (String key, int min, int max) {
+		return parseInt(key, values.getProperty(key), min, max);
+	}
+
+	private static int parseInt (String key, String text, int min, int max) {
+		int value;
+		try {
+			value = Integer.parseInt(text);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(key + " must be a whole number: " + text);
+		}
+		if (value < min || value > max) {
+			throw new IllegalArgumentException(key + " must be between " + min + " and " + max + ": " + value);
+		}
+		return value;
+	}
+
+	private long getLong (String key) {
+		try {
+			return Long.parseLong(values.getProperty(key));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(key + " must be a whole number: " + values.getProperty(key));
+		}
+	}
+
+	private double getDouble (String key) {
+		double value;
+		try {
+			value = Double.parseDouble(values.getProperty(key));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(key + " must be a number: " + values.getProperty(key));
+		}
+		if (value < 0 || value > 1) {
+			throw new IllegalArgumentException(key + " must be between 0 and 1: " + value);
+		}
+		return value;
+	}
+
+	public int getTileSize () {
+		return tileSize;
+	}
+
+	public int getColumns () {
+		return columns;
+	}
+
+	public int getRows () {
+		return rows;
+	}
+
+	public int getPlayers () {
+		return players;
+	}
+
+	public int getMovementErrorMargin () {
+		return movementErrorMargin;
+	}
+
+	public int getInitialMaxBombs () {
+		return initialMaxBombs;
+	}
+
+	public int getInitialRange () {
+		return initialRange;
+	}
+
+	public int getInitialCharTimerSpeed () {
+		return initialCharTimerSpeed;
+	}
+
+	public double getSpawnRate () {
+		return spawnRate;
+	}
+
+	public double getPowerUpRate () {
+		return powerUpRate;
+	}
+
+	public int getBombChangeDelay () {
+		return bombChangeDelay;
+	}
+
+	public int getBombFuse () {
+		return bombFuse;
+	}
+
+	public int getExplosionLife () {
+		return explosionLife;
+	}
+
+	public double getRangeChance () {
+		return rangeChance;
+	}
+
+	public double getSpeedChance () {
+		return speedChance;
+	}
+
+	/**
+	 * @return Returns true if the seed is set. Otherwise every Game picks a new one.
+	 */
+	public boolean hasSeed () {
+		return seeded;
+	}
+
+	/**
+	 * @return Returns the seed of the match's random numbers, 0 if not set (see hasSeed).
+	 */
+	public long getSeed () {
+		return seed;
+	}
+
+	public int getGapWidth () {
+		return gapWidth;
+	}
+
+	/**
+	 * @return Returns the maximum number of visible tile columns (the Board shows fewer if the arena is smaller).
+	 */
+	public int getViewColumns () {
+		return viewColumns;
+	}
+
+	/**
+	 * @return Returns the maximum number of visible tile rows (the Board shows fewer if the arena is smaller).
+	 */
+	public int getViewRows () {
+		return viewRows;
+	}
+
+	/**
+	 * @return Returns the camera setting: a player number, "midpoint" or "split".
+	 */
+	public String getCamera () {
+		return camera;
+	}
+
+	/**
+	 * @return Returns true if every player gets a view of their own.
+	 */
+	public boolean isSplitScreen () {
+		return camera.equals("split");
+	}
+
+	/**
+	 * @return Returns the index of the player followed by a single view, or Viewport.MIDPOINT.
+	 */
+	public int getCameraTarget () {
+		return (camera.equals("midpoint") || camera.equals("split")) ? Viewport.MIDPOINT : Integer.parseInt(camera)-1;
+	}
+
+	public boolean isActiveRendering () {
+		return activeRendering;
+	}
+
+	public int getRenderBuffers () {
+		return renderBuffers;
+	}
+
+	public boolean isFrameStats () {
+		return frameStats;
+	}
+
+	/**
+	 * @param player Index of the player (0 is player 1)
+	 * @return Returns true if the bots setting hands the player to a ThreatBot.
+	 */
+	public boolean isBot (int player) {
+		return (bots & (1 << player)) != 0;
+	}
+
+	@Override
+	public String toString () {
+		return values.toString();
+	}
+}
@@ -0,0 +1,116 @@
+package com.ducksonflame.dynablaster;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed-timestep simulation loop. A single thread advances the game TICK_RATE times per second.
+ * Bomb fuses, explosion lifetimes, wall crumbling and all sprite animations (Animator) are
+ * counted in ticks, so the number of threads stays the same no matter how many bombs are on the field.
+ * <br>The loop thread is the only writer of the game model; other threads read the snapshot published after each step.
+ * <br>If the loop falls behind (e.g. after a GC pause) it catches up with at most MAX_CATCH_UP_TICKS ticks and then drops the backlog.
+ */
+public class GameLoop implements Runnable {
+
+	public static final int TICK_RATE = 120;
+	public static final long TICK_NANOS = 1000000000L / TICK_RATE;
+	private static final int MAX_CATCH_UP_TICKS = 10;
+
+	private final Runnable step;
+	private Thread thread;
+	private volatile boolean running;
+	private volatile long tick;
+	private volatile long lastStepNanos; //When the last tick finished, used by renderers for interpolation
+
+	/**
+	 * @param step Invoked once per tick on the loop thread
+	 */
+	public GameLoop (Runnable step) {
+		this.step = step;
+	}
+
+	/**
+	 * Converts a delay in milliseconds to a whole number of ticks (at least one).
+	 * @param millis Delay in milliseconds
+	 * @return Number of ticks
+	 */
+	public static int millisToTicks (int millis) {
+		return Math.max(1, (int)Math.round(millis * TICK_RATE / 1000.0));
+	}
+
+	public synchronized void start () {
+		if (running) {
+			return;
+		}
+		running = true;
+		thread = new Thread(this, "DynaBlaster-loop");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the loop. The tick in progress (if any) is allowed to finish - called from another thread, stop waits for it,
+	 * so the caller may tear the game down afterwards. The loop thread may stop itself (e.g. when the match is over).
+	 */
+	public void stop () {
+		Thread t;
+		synchronized (this) {
+			running = false;
+			t = thread; //Kept, so a later stop from another thread still waits for a loop that stopped itself
+		}
+		if (t != null && t != Thread.currentThread()) {
+			LockSupport.unpark(t);
+			try {
+				t.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public void run () {
+		long next = System.nanoTime();
+		while (running) {
+			int steps = 0;
+			while (running && System.nanoTime() - next >= 0 && steps < MAX_CATCH_UP_TICKS) {
+				try {
+					step.run();
+				}
+				catch (RuntimeException e) {
+					e.printStackTrace();
+				}
+				tick++;
+				lastStepNanos = System.nanoTime();
+				next += TICK_NANOS;
+				steps++;
+			}
+			if (steps == MAX_CATCH_UP_TICKS) {
+				next = System.nanoTime();
+			}
+			LockSupport.parkNanos(next - System.nanoTime());
+		}
+	}
+
+	public boolean isRunning () {
+		return running;
+	}
+
+	/**
+	 * Fraction of a tick that has passed since the last step finished. Renderers use it to interpolate
+	 * between the last two snapshots, so motion stays smooth when the frame rate differs from TICK_RATE.
+	 * @return Value between 0 and 1 (1 when the loop is not running).
+	 */
+	public double getAlpha () {
+		if (running == false) {
+			return 1;
+		}
+		double alpha = (System.nanoTime() - lastStepNanos) / (double)TICK_NANOS;
+		return Math.max(0, Math.min(1, alpha));
+	}
+
+	/**
+	 * @return Number of ticks simulated since start.
+	 */
+	public long getTick () {
+		return tick;
+	}
+}
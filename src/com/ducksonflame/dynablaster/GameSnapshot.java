@@ -0,0 +1,146 @@
+package com.ducksonflame.dynablaster;
+
+import java.util.Collection;
+
+/**
+ * Immutable picture of a Game at the end of one tick - everything the renderer needs and nothing more.
+ * <br>The Game is only ever changed by the GameLoop thread. At the end of every step it copies its state into a new snapshot and
+ * publishes it through a volatile field, so the EDT can paint without locks and without seeing a half-updated tick.
+ * <br>The grid is a private copy and must not be modified.
+ */
+public final class GameSnapshot {
+
+	//Values stored per player: x, y, facing, frame, alive (1 or 0)
+	private static final int PLAYER_FIELDS = 5;
+	//Values stored per explosion: x, y, range and reach for UP, RIGHT, DOWN, LEFT
+	private static final int EXPLOSION_FIELDS = 7;
+
+	private final long tick;
+	private final TileGrid grid;
+	private final int[] players;
+	private final int[] previous; // x, y per player one tick earlier, for interpolation
+	private final int[] explosions;
+
+	/**
+	 * Copies the current state. Invoked by the Game on its own thread.
+	 * @param tick Tick the state belongs to
+	 * @param grid Live grid (copied)
+	 * @param players Players
+	 * @param explosions Live explosions
+	 * @param last Snapshot of the previous tick (or null), player positions are interpolated from it
+	 */
+	GameSnapshot (long tick, TileGrid grid, Character[] players, Collection<Explosion> explosions, GameSnapshot last) {
+		this.tick = tick;
+		this.grid = grid.copy();
+
+		this.players = new int[players.length*PLAYER_FIELDS];
+		for (int i = 0; i < players.length; i++) {
+			this.players[i*PLAYER_FIELDS] = players[i].getX();
+			this.players[i*PLAYER_FIELDS+1] = players[i].getY();
+			this.players[i*PLAYER_FIELDS+2] = players[i].getFacing();
+			this.players[i*PLAYER_FIELDS+3] = players[i].getFrame();
+			this.players[i*PLAYER_FIELDS+4] = players[i].isAlive() ? 1 : 0;
+		}
+
+		this.previous = new int[players.length*2];
+		for (int i = 0; i < players.length; i++) {
+			boolean known = last != null && i < last.getPlayerCount();
+			this.previous[i*2] = known ? last.getPlayerX(i) : getPlayerX(i);
+			this.previous[i*2+1] = known ? last.getPlayerY(i) : getPlayerY(i);
+		}
+
+		this.explosions = new int[explosions.size()*EXPLOSION_FIELDS];
+		int i = 0;
+		for (Explosion e : explosions) {
+			this.explosions[i] = e.getX();
+			this.explosions[i+1] = e.getY();
+			this.explosions[i+2] = e.getRange();
+			for (int d = 0; d < 4; d++) {
+				this.explosions[i+3+d] = e.getReach(d);
+			}
+			i += EXPLOSION_FIELDS;
+		}
+	}
+
+	public long getTick () {
+		return tick;
+	}
+
+	/**
+	 * @return Returns the grid as it was at the end of the tick. Read only.
+	 */
+	public TileGrid getGrid () {
+		return grid;
+	}
+
+	public int getPlayerCount () {
+		return players.length/PLAYER_FIELDS;
+	}
+
+	public int getPlayerX (int player) {
+		return players[player*PLAYER_FIELDS];
+	}
+
+	public int getPlayerY (int player) {
+		return players[player*PLAYER_FIELDS+1];
+	}
+
+	/**
+	 * @param player Player index
+	 * @param alpha Fraction of the tick passed since this snapshot was published (see GameLoop.getAlpha)
+	 * @return Returns the x coordinate interpolated between the previous tick and this one.
+	 */
+	public int getPlayerX (int player, double alpha) {
+		return interpolate(previous[player*2], getPlayerX(player), alpha);
+	}
+
+	/**
+	 * @param player Player index
+	 * @param alpha Fraction of the tick passed since this snapshot was published (see GameLoop.getAlpha)
+	 * @return Returns the y coordinate interpolated between the previous tick and this one.
+	 */
+	public int getPlayerY (int player, double alpha) {
+		return interpolate(previous[player*2+1], getPlayerY(player), alpha);
+	}
+
+	private static int interpolate (int from, int to, double alpha) {
+		return from + (int)Math.round((to - from)*alpha);
+	}
+
+	public int getPlayerFacing (int player) {
+		return players[player*PLAYER_FIELDS+2];
+	}
+
+	public int getPlayerFrame (int player) {
+		return players[player*PLAYER_FIELDS+3];
+	}
+
+	public boolean isPlayerAlive (int player) {
+		return players[player*PLAYER_FIELDS+4] != 0;
+	}
+
+	public int getExplosionCount () {
+		return explosions.length/EXPLOSION_FIELDS;
+	}
+
+	public int getExplosionX (int explosion) {
+		return explosions[explosion*EXPLOSION_FIELDS];
+	}
+
+	public int getExplosionY (int explosion) {
+		return explosions[explosion*EXPLOSION_FIELDS+1];
+	}
+
+	public int getExplosionRange (int explosion) {
+		return explosions[explosion*EXPLOSION_FIELDS+2];
+	}
+
+	/**
+	 * @param explosion Explosion index
+	 * @param direction One of Explosion.UP, RIGHT, DOWN, LEFT
+	 * @return Returns the number of tiles the ray covers.
+	 */
+	public int getExplosionReach (int explosion, int direction) {
+		return explosions[explosion*EXPLOSION_FIELDS+3+direction];
+	}
+}
@@ -0,0 +1,23 @@
+package com.ducksonflame.dynablaster;
+import java.util.Properties;
+
+/**
+ * Source of player input sampled once per tick by the GameLoop, e.g. the keyboard or a gamepad.
+ * <br>Besides the KeyboardInput, the Board picks up implementations listed in META-INF/services/com.ducksonflame.dynablaster.InputProvider
+ * (java.util.ServiceLoader), so a gamepad library can be plugged in by putting its provider jar on the classpath.
+ */
+public interface InputProvider {
+
+	/**
+	 * Called once before the first poll with the key bindings properties. Providers read their own mapping from them
+	 * (e.g. "gamepad.0.player=3"), the keys used are up to the provider.
+	 * @param bindings Properties loaded from KeyBindings.FILE
+	 */
+	default void configure (Properties bindings) {}
+
+	/**
+	 * Adds the provider's input for this tick. Invoked by the GameLoop thread.
+	 * @param inputs Input bitmask per player (Game.UP/DOWN/LEFT/RIGHT/BOMB) - bits are OR'ed in, never cleared
+	 */
+	void poll (int[] inputs);
+}
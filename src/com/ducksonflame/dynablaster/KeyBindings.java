@@ -0,0 +1,191 @@
+package com.ducksonflame.dynablaster;
+import java.awt.event.KeyEvent;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Key bindings table - maps a key code to a player and an action with a single array lookup.
+ * <br>Loaded from a properties file (FILE, in the working directory) with lines like:
+ * <br>player.1.up=W
+ * <br>player.2.bomb=ENTER, NUMPAD0
+ * <br>Key names are KeyEvent constants without the VK_ prefix. A key drives one player action, an action may have several keys.
+ * Without the file the DEFAULTS are used. A player with any binding in the file gets only the file's bindings, and a key the file binds
+ * is taken away from every default binding, so a rebinding is never overridden by another player's default. The properties are also handed to every InputProvider, so e.g. a gamepad provider can keep its own mapping there.
+ */
+public class KeyBindings {
+
+	public static final String FILE = "keybindings.properties";
+
+	//Actions in input bit order (action i is input bit 1 << i, see Game.UP/DOWN/LEFT/RIGHT/BOMB)
+	public static final String[] ACTIONS = {"up", "down", "left", "right", "bomb"};
+
+	//Key codes above this are ignored (every VK_ constant is below it)
+	public static final int KEY_CODES = 1024;
+
+	//WSAD + G, arrows + Enter, IJKL + U, numpad 8546 + 0
+	private static final String[][] DEFAULTS = {
+			{"W", "S", "A", "D", "G"},
+			{"UP", "DOWN", "LEFT", "RIGHT", "ENTER"},
+			{"I", "K", "J", "L", "U"},
+			{"NUMPAD8", "NUMPAD5", "NUMPAD4", "NUMPAD6", "NUMPAD0"}};
+
+	private final int[] actions = new int[KEY_CODES]; //(player-1)*ACTIONS.length + action, -1 if the key is not bound
+	private final Properties properties;
+	private final int players;
+
+	/**
+	 * Builds the table. Unknown key names are reported and skipped, as are keys bound twice (the first binding is kept).
+	 * @param properties Bindings as described in the class documentation
+	 * @param players Number of players to read bindings for
+	 */
+	public KeyBindings (Properties properties, int players) {
+		this.properties = properties;
+		this.players = players;
+		for (int k = 0; k < KEY_CODES; k++) {
+			actions[k] = -1;
+		}
+
+		for (int p = 1; p <= players; p++) {
+			for (int a = 0; a < ACTIONS.length; a++) {
+				String keys = properties.getProperty("player."+p+"."+ACTIONS[a]);
+				if (keys == null) {
+					continue;
+				}
+				for (String name : keys.split(",")) {
+					int code = keyCode(name.trim());
+					if (code < 0 || code >= KEY_CODES) {
+						System.err.println("Unknown key in bindings: player."+p+"."+ACTIONS[a]+"="+name.trim());
+						continue;
+					}
+					if (actions[code] >= 0) {
+						int other = actions[code];
+						System.err.println("Key bound twice in bindings: player."+p+"."+ACTIONS[a]+"="+name.trim()
+								+" is already player."+(other/ACTIONS.length+1)+"."+ACTIONS[other%ACTIONS.length]);
+						continue;
+					}
+					actions[code] = (p-1)*ACTIONS.length + a;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Loads bindings from a file, falling back to the defaults if it does not exist or cannot be read.
+	 * Players the file has bindings for drop all of their defaults, and the defaults of the other players lose the keys the file binds.
+	 * @param path Properties file
+	 * @param players Number of players
+	 * @return Bindings table
+	 */
+	public static KeyBindings load (String path, int players) {
+		Properties file = new Properties();
+		if (Files.isRegularFile(Paths.get(path))) {
+			try (InputStream in = new FileInputStream(path)) {
+				file.load(in);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		return new KeyBindings(merge(defaults(), file), players);
+	}
+
+	/**
+	 * Applies a bindings file on top of the defaults: a player bound in the file replaces their defaults as a whole,
+	 * a key bound in the file is removed from the remaining defaults.
+	 * @param defaults Default bindings (changed and returned)
+	 * @param file Bindings read from the file
+	 * @return Returns the merged bindings.
+	 */
+	static Properties merge (Properties defaults, Properties file) {
+		boolean[] taken = new boolean[KEY_CODES];
+		for (int p = 1; p <= DEFAULTS.length; p++) {
+			boolean rebound = false;
+			for (int a = 0; a < ACTIONS.length; a++) {
+				String keys = file.getProperty("player."+p+"."+ACTIONS[a]);
+				if (keys == null) {
+					continue;
+				}
+				rebound = true;
+				for (String name : keys.split(",")) {
+					int code = keyCode(name.trim());
+					if (code >= 0 && code < KEY_CODES) {
+						taken[code] = true;
+					}
+				}
+			}
+			if (rebound) {
+				for (int a = 0; a < ACTIONS.length; a++) {
+					defaults.remove("player."+p+"."+ACTIONS[a]);
+				}
+			}
+		}
+		for (String key : defaults.stringPropertyNames()) {
+			StringBuilder kept = new StringBuilder();
+			for (String name : defaults.getProperty(key).split(",")) {
+				int code = keyCode(name.trim());
+				if (code >= 0 && code < KEY_CODES && taken[code]) {
+					continue;
+				}
+				if (kept.length() > 0) {
+					kept.append(", ");
+				}
+				kept.append(name.trim());
+			}
+			if (kept.length() == 0) {
+				defaults.remove(key);
+			}
+			else {
+				defaults.setProperty(key, kept.toString());
+			}
+		}
+		defaults.putAll(file);
+		return defaults;
+	}
+
+	/**
+	 * @return Returns the default bindings for all Game.MAX_PLAYERS players.
+	 */
+	public static Properties defaults () {
+		Properties properties = new Properties();
+		for (int p = 0; p < DEFAULTS.length; p++) {
+			for (int a = 0; a < ACTIONS.length; a++) {
+				properties.setProperty("player."+(p+1)+"."+ACTIONS[a], DEFAULTS[p][a]);
+			}
+		}
+		return properties;
+	}
+
+	/**
+	 * @param name Key name without the VK_ prefix (e.g. "W", "ENTER", "NUMPAD0")
+	 * @return Returns the key code or -1 if there is no such key.
+	 */
+	public static int keyCode (String name) {
+		try {
+			return KeyEvent.class.getField("VK_"+name.toUpperCase()).getInt(null);
+		} catch (NoSuchFieldException | IllegalAccessException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * @param keyCode Key code (KeyEvent.VK_...)
+	 * @return Returns (player index)*ACTIONS.length + action for a bound key, -1 otherwise.
+	 */
+	public int lookup (int keyCode) {
+		if (keyCode < 0 || keyCode >= KEY_CODES) {
+			return -1;
+		}
+		return actions[keyCode];
+	}
+
+	public int getPlayers () {
+		return players;
+	}
+
+	public Properties getProperties () {
+		return properties;
+	}
+}
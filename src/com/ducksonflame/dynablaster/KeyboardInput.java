@@ -0,0 +1,108 @@
+package com.ducksonflame.dynablaster;
+import java.awt.event.FocusEvent;
+import java.awt.event.FocusListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Keyboard state table. The EDT records key presses and releases, the GameLoop samples the result once per tick
+ * as per-player input bitmasks (Game.UP/DOWN/LEFT/RIGHT/BOMB).
+ * <br>Each key event is one KeyBindings lookup and no allocation. Auto-repeat presses are ignored, releases without a press are harmless
+ * and losing focus releases every key, so no player keeps walking after alt-tab.
+ * <br>Presses are latched until the next poll, so a tap shorter than one tick still reaches the game - input-to-motion latency is at most one tick.
+ */
+public class KeyboardInput implements InputProvider, KeyListener, FocusListener {
+
+	private final KeyBindings bindings;
+
+	//EDT only: held keys (bitset by key code) and number of held keys per player action
+	private final long[] held = new long[KeyBindings.KEY_CODES/64];
+	private final int[] heldActions;
+
+	//Shared with the GameLoop: held actions and actions pressed since the last poll, one bitmask per player
+	private final AtomicIntegerArray playerHeld;
+	private final AtomicIntegerArray playerPressed;
+
+	/**
+	 * @param bindings Key to player action table
+	 */
+	public KeyboardInput (KeyBindings bindings) {
+		this.bindings = bindings;
+		heldActions = new int[bindings.getPlayers()*KeyBindings.ACTIONS.length];
+		playerHeld = new AtomicIntegerArray(bindings.getPlayers());
+		playerPressed = new AtomicIntegerArray(bindings.getPlayers());
+	}
+
+	@Override
+	public void poll (int[] inputs) {
+		for (int p = 0; p < playerHeld.length() && p < inputs.length; p++) {
+			inputs[p] |= playerHeld.get(p) | playerPressed.getAndSet(p, 0);
+		}
+	}
+
+	/**
+	 * Releases every key. Called when the component loses focus (key releases are not delivered then).
+	 */
+	public void releaseAll () {
+		for (int w = 0; w < held.length; w++) {
+			held[w] = 0;
+		}
+		for (int i = 0; i < heldActions.length; i++) {
+			heldActions[i] = 0;
+		}
+		for (int p = 0; p < playerHeld.length(); p++) {
+			playerHeld.set(p, 0);
+		}
+	}
+
+	@Override
+	public void keyPressed (KeyEvent e) {
+		int code = e.getKeyCode();
+		int action = bindings.lookup(code);
+		if (action < 0 || isHeld(code)) {
+			return;
+		}
+		held[code >>> 6] |= 1L << (code & 63);
+
+		int player = action / KeyBindings.ACTIONS.length;
+		int bit = 1 << (action % KeyBindings.ACTIONS.length);
+		heldActions[action]++;
+		playerHeld.set(player, playerHeld.get(player) | bit);
+		playerPressed.getAndAccumulate(player, bit, (a, b) -> a | b);
+	}
+
+	@Override
+	public void keyReleased (KeyEvent e) {
+		int code = e.getKeyCode();
+		int action = bindings.lookup(code);
+		if (action < 0 || isHeld(code) == false) {
+			return;
+		}
+		held[code >>> 6] &= ~(1L << (code & 63));
+
+		int player = action / KeyBindings.ACTIONS.length;
+		int bit = 1 << (action % KeyBindings.ACTIONS.length);
+		if (--heldActions[action] == 0) {
+			playerHeld.set(player, playerHeld.get(player) & ~bit);
+		}
+	}
+
+	private boolean isHeld (int code) {
+		return (held[code >>> 6] & (1L << (code & 63))) != 0;
+	}
+
+	/**
+	 * Not used.
+	 */
+	@Override
+	public void keyTyped (KeyEvent e) {}
+
+	@Override
+	public void focusGained (FocusEvent e) {}
+
+	@Override
+	public void focusLost (FocusEvent e) {
+		releaseAll();
+	}
+}
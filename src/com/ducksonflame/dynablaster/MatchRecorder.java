@@ -0,0 +1,137 @@
+package com.ducksonflame.dynablaster;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * Writes a match to a compact binary log that MatchReplay plays back.
+ * The log is streamed and append-only: records are written as the match goes and never rewritten.
+ * <br><br>Format (DataOutputStream, numbers marked varint use 7 bits per byte, low bits first):
+ * <br>Header - MAGIC (int), VERSION (byte), number of settings (varint), then key and value of every GameConfig setting (writeUTF).
+ * The seed is one of the settings, so the header alone recreates the starting state.
+ * <br>INPUTS - count (varint), then one input bitmask byte per player, held for count ticks. A new record starts when any input changes.
+ * <br>CHECKPOINT - tick (varint), Game.checksum() after that tick. Written every CHECKPOINT_INTERVAL ticks, the stream is flushed after it,
+ * so a crash loses at most one interval and playback can tell the tick a desync started at.
+ * <br>END - last tick (varint), winner (byte). Missing if the match was aborted.
+ */
+public class MatchRecorder {
+
+	public static final int MAGIC = 0x44594E52; //"DYNR"
+	public static final int VERSION = 4; //2 - sub-pixel velocity movement, 3 - Animator clips, 4 - bombs stop players short again
+	public static final int CHECKPOINT_INTERVAL = GameLoop.TICK_RATE*5;
+
+	//Record types
+	static final int INPUTS = 1;
+	static final int CHECKPOINT = 2;
+	static final int END = 3;
+
+	private final DataOutputStream out;
+	private final int[] run; //Inputs of the current run, not written yet
+	private int runLength;
+	private boolean closed = false;
+
+	/**
+	 * Writes the header.
+	 * @param out Stream to write to (buffer it, records are small)
+	 * @param config Settings of the match, seed included (Game.getConfig())
+	 * @throws IOException If the header cannot be written
+	 */
+	public MatchRecorder (OutputStream out, GameConfig config) throws IOException {
+		this.out = new DataOutputStream(out);
+		run = new int[config.getPlayers()];
+		this.out.writeInt(MAGIC);
+		this.out.writeByte(VERSION);
+		Properties settings = config.toProperties();
+		writeVarLong(settings.size());
+		for (String key : settings.stringPropertyNames()) {
+			this.out.writeUTF(key);
+			this.out.writeUTF(settings.getProperty(key));
+		}
+		this.out.flush();
+	}
+
+	/**
+	 * @param path File to create (overwritten if it exists)
+	 * @param config Settings of the match, seed included (Game.getConfig())
+	 * @return Returns a recorder writing to the file.
+	 * @throws IOException If the file cannot be created
+	 */
+	public static MatchRecorder create (String path, GameConfig config) throws IOException {
+		return new MatchRecorder(new BufferedOutputStream(new FileOutputStream(path)), config);
+	}
+
+	/**
+	 * Appends the inputs of the tick just stepped. Must be called once after every Game.step.
+	 * @param game Game that was stepped
+	 * @param inputs Inputs passed to the step
+	 * @throws IOException If writing fails
+	 */
+	public synchronized void record (Game game, int[] inputs) throws IOException {
+		if (closed) {
+			return;
+		}
+		if (runLength > 0) {
+			for (int p = 0; p < run.length; p++) {
+				if (run[p] != inputs[p]) {
+					writeRun();
+					break;
+				}
+			}
+		}
+		System.arraycopy(inputs, 0, run, 0, run.length);
+		runLength++;
+		if (game.getTick() % CHECKPOINT_INTERVAL == 0) {
+			writeRun();
+			out.writeByte(CHECKPOINT);
+			writeVarLong(game.getTick());
+			out.writeInt(game.checksum());
+			out.flush();
+		}
+	}
+
+	/**
+	 * Writes what is left, the END record if the match is over, and closes the stream. Further calls do nothing.
+	 * @param game Recorded game
+	 * @throws IOException If writing fails
+	 */
+	public synchronized void close (Game game) throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			writeRun();
+			if (game.isOver()) {
+				out.writeByte(END);
+				writeVarLong(game.getTick());
+				out.writeByte(game.getWinner());
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	private void writeRun () throws IOException {
+		if (runLength == 0) {
+			return;
+		}
+		out.writeByte(INPUTS);
+		writeVarLong(runLength);
+		for (int p = 0; p < run.length; p++) {
+			out.writeByte(run[p]);
+		}
+		runLength = 0;
+	}
+
+	private void writeVarLong (long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int)((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int)value);
+	}
+}
@@ -0,0 +1,222 @@
+package com.ducksonflame.dynablaster;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Plays back a match written by MatchRecorder (see there for the format).
+ * <br>The replay is an InputProvider: it feeds the recorded inputs tick by tick into a Game created from the recorded GameConfig,
+ * either headless as fast as the simulation runs (play) or through a Board in a MyFrame, in real time.
+ * <br>After every step verify compares the game against the recorded checkpoints, so a desync is reported at the checkpoint it first shows at.
+ */
+public class MatchReplay implements InputProvider {
+
+	private final DataInputStream in;
+	private final GameConfig config;
+
+	//Current run of inputs and the number of ticks left in it
+	private final int[] run;
+	private int runLength;
+	private boolean finished = false; //No more records
+	private String error; //Why reading stopped early, null if it did not
+
+	//Last checkpoint read, not verified yet (-1 if none)
+	private long checkpointTick = -1;
+	private int checkpointHash;
+	private int checkpoints;
+
+	//Contents of the END record (-1 if the match was aborted)
+	private long endTick = -1;
+	private int winner;
+
+	/**
+	 * Reads the header.
+	 * @param in Stream to read (buffer it, records are small)
+	 * @throws IOException If the stream is not a replay or cannot be read
+	 */
+	public MatchReplay (InputStream in) throws IOException {
+		this.in = new DataInputStream(in);
+		if (this.in.readInt() != MatchRecorder.MAGIC) {
+			throw new IOException("Not a DynaBlaster replay");
+		}
+		int version = this.in.readUnsignedByte();
+		if (version != MatchRecorder.VERSION) {
+			throw new IOException("Unsupported replay version: " + version);
+		}
+		Properties settings = new Properties();
+		long count = readVarLong();
+		for (long i = 0; i < count; i++) {
+			String key = this.in.readUTF();
+			settings.setProperty(key, this.in.readUTF());
+		}
+		config = GameConfig.fromProperties(settings);
+		run = new int[config.getPlayers()];
+	}
+
+	/**
+	 * @param path Replay file
+	 * @return Returns the replay, positioned at the first tick.
+	 * @throws IOException If the file is not a replay or cannot be read
+	 */
+	public static MatchReplay open (String path) throws IOException {
+		return new MatchReplay(new BufferedInputStream(new FileInputStream(path)));
+	}
+
+	/**
+	 * Plays the rest of the replay headless, as fast as the simulation runs, verifying every checkpoint and the recorded result.
+	 * @return Returns the replayed game.
+	 * @throws IllegalStateException If the game does not follow the recording or the recording is damaged
+	 */
+	public Game play () {
+		Game game = new Game(config);
+		int[] inputs = new int[config.getPlayers()];
+		while (game.isOver() == false && hasNext()) {
+			Arrays.fill(inputs, 0);
+			poll(inputs);
+			game.step(inputs);
+			verify(game);
+		}
+		if (error != null) {
+			throw new IllegalStateException("Replay damaged after tick " + game.getTick() + ": " + error);
+		}
+		if (endTick >= 0 && (game.getTick() != endTick || game.getWinner() != winner)) {
+			throw new IllegalStateException("Replay desync: recorded player " + winner + " winning at tick " + endTick
+					+ ", replayed player " + game.getWinner() + " at tick " + game.getTick());
+		}
+		game.dispose();
+		return game;
+	}
+
+	/**
+	 * @return Returns true if there are recorded inputs for another tick.
+	 */
+	public boolean hasNext () {
+		if (runLength == 0 && finished == false) {
+			readRun();
+		}
+		return runLength > 0;
+	}
+
+	@Override
+	public void poll (int[] inputs) {
+		if (hasNext()) {
+			for (int p = 0; p < run.length && p < inputs.length; p++) {
+				inputs[p] |= run[p];
+			}
+			runLength--;
+		}
+	}
+
+	/**
+	 * Compares the game with the checkpoint recorded for its tick, if there is one. Call after every step.
+	 * @param game Game fed by this replay
+	 * @throws IllegalStateException If the game differs from the recording
+	 */
+	public void verify (Game game) {
+		if (runLength == 0 && finished == false) {
+			readRun();
+		}
+		if (checkpointTick >= 0 && checkpointTick == game.getTick()) {
+			checkpointTick = -1;
+			if (game.checksum() != checkpointHash) {
+				throw new IllegalStateException("Replay desync at tick " + game.getTick() + " (checkpoint " + (checkpoints+1) + ")");
+			}
+			checkpoints++;
+		}
+	}
+
+	/**
+	 * Reads records up to the next INPUTS record, the END record or the end of the stream.
+	 */
+	private void readRun () {
+		try {
+			while (true) {
+				int type = in.read();
+				if (type < 0) {
+					finish();
+					return;
+				}
+				if (type == MatchRecorder.INPUTS) {
+					runLength = (int)readVarLong();
+					for (int p = 0; p < run.length; p++) {
+						run[p] = in.readUnsignedByte();
+					}
+					return;
+				}
+				else if (type == MatchRecorder.CHECKPOINT) {
+					checkpointTick = readVarLong();
+					checkpointHash = in.readInt();
+				}
+				else if (type == MatchRecorder.END) {
+					endTick = readVarLong();
+					winner = in.readUnsignedByte();
+					finish();
+					return;
+				}
+				else {
+					throw new IOException("Unknown replay record: " + type);
+				}
+			}
+		} catch (EOFException e) {
+			finish(); //Recording cut off mid record (e.g. the game crashed), play what there is
+		} catch (IOException e) {
+			e.printStackTrace();
+			error = e.getMessage();
+			finish();
+		}
+	}
+
+	private void finish () {
+		finished = true;
+		try {
+			in.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private long readVarLong () throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (long)(b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed replay number");
+	}
+
+	/**
+	 * @return Returns the recorded settings, seed included.
+	 */
+	public GameConfig getConfig () {
+		return config;
+	}
+
+	/**
+	 * @return Returns the number of checkpoints verified so far.
+	 */
+	public int getCheckpoints () {
+		return checkpoints;
+	}
+
+	/**
+	 * @return Returns the recorded last tick, -1 if the match was aborted (or the END record was not reached yet).
+	 */
+	public long getEndTick () {
+		return endTick;
+	}
+
+	/**
+	 * @return Returns the recorded winner, 0 if unknown.
+	 */
+	public int getWinner () {
+		return winner;
+	}
+}
@@ -1,27 +1,63 @@
 package com.ducksonflame.dynablaster;
+import java.awt.Dimension;
+
 import javax.swing.JFrame;
 
 /**
  * Main JFrame - handles initial and end game screens (work in progress). Handles play again functionality.
+ * <br>Also used as the replay viewer: the first Board then plays back a MatchReplay, play again starts a live game with the recorded settings.
  */
 
 @SuppressWarnings("serial")
 public class MyFrame extends JFrame {
 	
 	private Board myBoard;
+	private final GameConfig config;
+	
+	//Match log: file every match is recorded to (null if not recorded) and the replay shown first (null once shown)
+	private final String recordPath;
+	private MatchReplay replay;
+	private int matches = 0;
+	
+	/**
+	 * @param config Settings used for every game started in this frame
+	 */
+	public MyFrame (GameConfig config) {
+		this(config, null);
+	}
 	
-	public MyFrame () {
+	/**
+	 * @param config Settings used for every game started in this frame
+	 * @param recordPath File to record matches to (the second match gets "-2" before the extension and so on), null to not record
+	 */
+	public MyFrame (GameConfig config, String recordPath) {
 		
+		this.config = config;
+		this.recordPath = recordPath;
 		initUI();
 	
 	}
 	
+	/**
+	 * Creates the replay viewer.
+	 * @param replay Recorded match to show
+	 */
+	public MyFrame (MatchReplay replay) {
+		
+		this.config = replay.getConfig();
+		this.recordPath = null;
+		this.replay = replay;
+		initUI();
+		setTitle("Dyna Blaster - replay");
+	
+	}
+	
 	/**
 	 * Initiates new game. Sets basic properties.
 	 */
 	private void initUI() {
 		
-		myBoard = new Board(this);
+		myBoard = createBoard();
 		add(myBoard);
 		setResizable(false);
 		pack();
@@ -32,23 +68,48 @@ public class MyFrame extends JFrame {
 		
 	}
 	
+	/**
+	 * @return Returns a Board for the pending replay or a new (possibly recorded) match.
+	 */
+	private Board createBoard () {
+		if (replay != null) {
+			MatchReplay shown = replay;
+			replay = null;
+			return new Board(this, shown);
+		}
+		matches++;
+		if (recordPath == null || matches == 1) {
+			return new Board(this, config, recordPath);
+		}
+		int dot = recordPath.lastIndexOf('.');
+		if (dot <= Math.max(recordPath.lastIndexOf('/'), recordPath.lastIndexOf('\\'))) {
+			return new Board(this, config, recordPath + "-" + matches);
+		}
+		return new Board(this, config, recordPath.substring(0, dot) + "-" + matches + recordPath.substring(dot));
+	}
+	
 	/**
 	 * Should handle new game after the option is chosen in TempPanel. (Work in progress)
 	 */
 	public void newGame () {
 		getContentPane().removeAll();
-		setContentPane(new Board(this));
+		myBoard = createBoard();
+		setContentPane(myBoard);
 		revalidate();
 	}
 	
 	/**
-	 * Clears the current game Board and initialized a TempPanel.
+	 * Clears the current game Board (cancelling all of its scheduled tasks) and initialized a TempPanel.
 	 * @param winner Takes winner and passes it to TempPanel for display.
 	 */
 	public void playAgain(int winner) {
+		Dimension size = getContentPane().getPreferredSize(); //The Board's, whatever its views (split-screen included)
 		getContentPane().removeAll();
+		if (myBoard != null) {
+			myBoard.dispose();
+		}
 		myBoard = null;
-		setContentPane(new EndGamePanel(this, winner));
+		setContentPane(new EndGamePanel(this, winner, size));
 		revalidate();
 
 	}
@@ -1,158 +1,112 @@
 package com.ducksonflame.dynablaster;
-import java.awt.Image;
-import java.util.Timer;
-import java.util.TimerTask;
-
-import javax.swing.ImageIcon;
-
 
 /**
  * Class containing logic for creating Power Ups.
- * Modifiable settings contain chances for different powerUps.
+ * Chances for different powerUps come from the game's GameConfig (rangeChance, speedChance), the type is rolled with the game's seeded random numbers.
  * <br>Chance for bombsUp is calculated as 1 - (rangeChance + speedChance)
  * <br><br>
  * PowerUp knows its type and allows character to get it via a getter method. 
  * Player interaction implemented in the Player class.
+ * <br>Type and animation frame are stored in the game's TileGrid, the object only owns its animation (flashing, then burning - Animator clips)
+ * and the removal task after burning (run on the game's TickScheduler).
+ * <br>PowerUps are pooled by the Game: an instance is created once and dropped again after it was picked up or burnt.
  */
 public class PowerUp {
-		
-	//Commented out Images for future implementation of burning animation
-	private Image bombsUp = new ImageIcon("images/bombsUp_"+Board.TILE_SIZE+".png").getImage();
-	private Image bombsUp1 = new ImageIcon("images/bombsUp_1_"+Board.TILE_SIZE+".png").getImage();
-//	private Image bombsUpBurn = new ImageIcon("images/bombsUp_"+Board.TILE_SIZE+".png").getImage();
-//	private Image bombsUpBurn1 = new ImageIcon("images/bombsUp_"+Board.TILE_SIZE+".png").getImage();
-	private Image rangeUp = new ImageIcon("images/rangeUp_"+Board.TILE_SIZE+".png").getImage();
-	private Image rangeUp1 = new ImageIcon("images/rangeUp_1_"+Board.TILE_SIZE+".png").getImage();
-//	private Image rangeUpBurn = new ImageIcon("images/rangeUp_"+Board.TILE_SIZE+".png").getImage();
-//	private Image rangeUpBurn1 = new ImageIcon("images/rangeUp_"+Board.TILE_SIZE+".png").getImage();
-	private Image speedUp = new ImageIcon("images/speedUp_1_"+Board.TILE_SIZE+".png").getImage();
-	private Image speedUp1 = new ImageIcon("images/speedUp_"+Board.TILE_SIZE+".png").getImage();
-//	private Image speedUpBurn = new ImageIcon("images/speedUp_"+Board.TILE_SIZE+".png").getImage();
-//	private Image speedUpBurn1 = new ImageIcon("images/speedUp_"+Board.TILE_SIZE+".png").getImage();
 	
-	private Board gameBoard;
-	private Image currentImg;
-	private Image img;
-	private Image img1;
-	private Image burnImg;
-	private Image burnImg1;
-	private boolean timersRunning = false;
-	private int x;
-	private int y;
-	private int i;
-	private int j;
+	//Animation frames. Burning frames have no images yet, so nothing is drawn - adding them to the Board's powerUp table is enough to show them.
+	public static final int FRAME_NONE = -1;
+	public static final int FRAME_1 = 0;
+	public static final int FRAME_2 = 1;
+	public static final int FRAME_BURN_1 = 2;
+	public static final int FRAME_BURN_2 = 3;
+		
+	private final Game game;
+	private final TileGrid grid;
+	private boolean burning = false;
+	private final Animation animation;
+	private final TickTask destrTimer;
+	private int col;
+	private int row;
 	private int type; // 1 - range, 2 - speed, 3 - bombs
 	
-	//Modify these chances to get uneven distribution of powerUps. Chance for bombsUp is calculated as 1 - (rangeChance + speedChance)
-	private double rangeChance = 0.33;
-	private double speedChance = 0.33;
+	//Chances for uneven distribution of powerUps. Chance for bombsUp is calculated as 1 - (rangeChance + speedChance)
+	private final double rangeChance;
+	private final double speedChance;
 	
 	/**
-	 * Sets properties, including its type. Invokes timer for animation.
-	 * @param x X coordinate
-	 * @param y Y coordinate
-	 * @param i Index i
-	 * @param j Index j
-	 * @param gameBoard Main game reference
+	 * Creates a PowerUp that is not on the grid yet, with its animation and removal task. Used by the Game's pool.
+	 * @param game Game model reference
 	 */
-	public PowerUp (int x, int y, int i, int j, Board gameBoard) {
+	PowerUp (Game game) {
+		
+		this.game = game;
+		this.grid = game.getGrid();
+		this.rangeChance = game.getConfig().getRangeChance();
+		this.speedChance = game.getConfig().getSpeedChance();
+		
+		animation = new Animation() {
+			@Override
+			public void show(int frame) {
+				grid.setPowerUpFrame(col, row, frame);
+			}
+		};
+		destrTimer = new TickTask() {
+			@Override
+			public void run(){
+				game.powerUpPickUp(col, row);
+			}
+		};
 		
-		this.x = x;
-		this.y = y;
-		this.i = i;
-		this.j = j;
-		this.gameBoard = gameBoard;
+	}
+	
+	/**
+	 * Sets properties, including its type, and puts the PowerUp on the grid. Starts the flashing animation.
+	 * @param col Column
+	 * @param row Row
+	 */
+	void drop (int col, int row) {
+		
+		this.col = col;
+		this.row = row;
+		burning = false;
 			
-		double rand = Math.random();
+		double rand = game.getRandom().nextDouble();
 
 		if (rand <= rangeChance) {
-			img = rangeUp;
-			img1 = rangeUp1;
 			type = 1;
 		}
 		else if (rand <= speedChance + rangeChance) {
-			img = speedUp;
-			img1 = speedUp1;
 			type = 2;
 		}
 		else {
-			img = bombsUp;
-			img1 = bombsUp1;
 			type = 3;
 		}
-		
-		Timer imgTimer = new Timer();
-		imgTimer.scheduleAtFixedRate(new TimerTask() {
-			@Override
-			public void run(){
-				imgChange();
-	    	}
-		}, 0, 450);
+		grid.setPowerUp(col, row, type);
+		game.getAnimator().play(animation, game.getAnimator().POWER_UP_FLASH, 1);
 		
 	}
 	
 	/**
-	 * Burns the PowerUp if hit by explosion. Contains logic for future burn animation, if implemented.
+	 * Burns the PowerUp if hit by explosion: plays the burning clip and removes the PowerUp when the explosion is over.
 	 */
 	public void burn () {
 		
-		if (timersRunning == false) {
-			timersRunning = true;
-			Timer burnImgTimer = new Timer();
-			burnImgTimer.scheduleAtFixedRate(new TimerTask() {
-				@Override
-				public void run(){
-					burnImgChange();
-				}
-			}, 0, Explosion.expLife/2);
-			
-			Timer destrTimer = new Timer();
-			destrTimer.schedule(new TimerTask() {
-				@Override
-				public void run(){
-					gameBoard.powerUpPickUp(i, j);
-				}
-			},Explosion.expLife);			
+		if (burning == false) {
+			burning = true;
+			game.getAnimator().play(animation, game.getAnimator().POWER_UP_BURN, 1);
+			game.getScheduler().schedule(destrTimer, GameLoop.millisToTicks(game.getConfig().getExplosionLife()));
 		}
 	}
 	
 	/**
-	 * Contains logic for animation (flashing effect).
-	 */
-	private void imgChange () {
-		if (this.currentImg == img) {
-			this.currentImg = img1;
-		}
-		else {
-			this.currentImg = img;
-		}
-	}
-
-	/**
-	 * Logic for burning animation.
+	 * Stops the animation and the removal task. Called when the PowerUp is removed from the game.
 	 */
-	private void burnImgChange () {
-		if (this.currentImg == img) { //Change to burnImg1 for implementation
-			this.currentImg = burnImg;
-		}
-		else if (this.currentImg == burnImg) {
-			this.currentImg = burnImg1;
-		}
-	}
-	
-	public Image getCurrentImg() {
-		return currentImg;
+	public void dispose () {
+		animation.stop();
+		destrTimer.cancel();
 	}
 	
 	public int getType() {
 		return type;
 	}
-
-	public int getX() {
-		return x;
-	}
-	
-	public int getY() {
-		return y;
-	}
 }
@@ -0,0 +1,131 @@
+package com.ducksonflame.dynablaster;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Process-wide sprite cache. Every image is read from the images folder only once per size,
+ * converted to a display-compatible BufferedImage and then shared by all game objects.
+ * <br>Sprites are requested by asset name without the size suffix (e.g. "bomb1" for images/bomb1_100.png).
+ * <br>Hit/miss counters and the total load time can be used to confirm that no disk access happens after warm-up.
+ */
+public final class Sprites {
+
+	private static final String IMAGES_DIR = "images";
+
+	private static final ConcurrentHashMap<String, BufferedImage> cache = new ConcurrentHashMap<String, BufferedImage>();
+
+	//Statistics
+	private static final LongAdder hits = new LongAdder();
+	private static final AtomicLong misses = new AtomicLong();
+	private static final AtomicLong loadNanos = new AtomicLong();
+
+	private Sprites () {}
+
+	/**
+	 * Returns the shared sprite for the given size. Loads it from disk on the first request.
+	 * @param name Asset name without the size suffix
+	 * @param size Tile size the asset was drawn for
+	 * @return Cached image
+	 */
+	public static BufferedImage get (String name, int size) {
+		String key = name+"_"+size;
+		BufferedImage img = cache.get(key);
+		if (img != null) {
+			hits.increment();
+			return img;
+		}
+		return cache.computeIfAbsent(key, k -> load(k, size));
+	}
+
+	/**
+	 * Loads every image of the given size from the images folder. Called once at startup.
+	 * @param size Tile size
+	 */
+	public static void preload (int size) {
+		String suffix = "_"+size+".png";
+		File[] files = new File(IMAGES_DIR).listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File f : files) {
+			String fileName = f.getName();
+			if (fileName.endsWith(suffix)) {
+				String key = fileName.substring(0, fileName.length()-4);
+				cache.computeIfAbsent(key, k -> load(k, size));
+			}
+		}
+	}
+
+	/**
+	 * Reads the image and copies it into an image compatible with the default screen (or a plain ARGB image when headless).
+	 * A missing file is reported and replaced with a transparent tile so that drawing code never gets null.
+	 */
+	private static BufferedImage load (String key, int size) {
+		long start = System.nanoTime();
+		misses.incrementAndGet();
+		BufferedImage compatible;
+		try {
+			BufferedImage raw = ImageIO.read(new File(IMAGES_DIR, key+".png"));
+			if (raw == null) {
+				throw new IOException("Unsupported image format");
+			}
+			compatible = createImage(raw.getWidth(), raw.getHeight(), Transparency.TRANSLUCENT);
+			Graphics2D g = compatible.createGraphics();
+			g.drawImage(raw, 0, 0, null);
+			g.dispose();
+		}
+		catch (IOException e) {
+			System.err.println("Could not load sprite: "+key);
+			compatible = createImage(size, size, Transparency.TRANSLUCENT);
+		}
+		loadNanos.addAndGet(System.nanoTime()-start);
+		return compatible;
+	}
+
+	/**
+	 * Creates an image in the format of the default screen (or a plain RGB/ARGB image when headless).
+	 * @param width Width in pixels
+	 * @param height Height in pixels
+	 * @param transparency One of the Transparency constants
+	 * @return New, empty image
+	 */
+	static BufferedImage createImage (int width, int height, int transparency) {
+		if (GraphicsEnvironment.isHeadless()) {
+			return new BufferedImage(width, height, transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+		}
+		GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+		return gc.createCompatibleImage(width, height, transparency);
+	}
+
+	public static long getHits () {
+		return hits.sum();
+	}
+
+	/**
+	 * @return Number of disk loads so far. Should not grow after warm-up.
+	 */
+	public static long getMisses () {
+		return misses.get();
+	}
+
+	/**
+	 * @return Total time spent loading images from disk, in nanoseconds.
+	 */
+	public static long getLoadNanos () {
+		return loadNanos.get();
+	}
+
+	public static int size () {
+		return cache.size();
+	}
+}
@@ -0,0 +1,406 @@
+package com.ducksonflame.dynablaster;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Bot that sees bombs coming: keeps a threat map - the game ticks at which every tile is expected to burn, chain reactions included -
+ * and plans its moves with a timed breadth-first search over the grid, so it only crosses a threatened tile while it is not burning.
+ * <br>Every tick it flees to the closest safe tile if its own is threatened. Otherwise it drops a bomb when the bomb would hit a destructible
+ * wall or another player and a safe tile can still be reached before the fuse runs out, or heads for the closest powerUp, the closest tile
+ * next to a wall, or the closest player, in that order.
+ * <br>The threat map is updated incrementally: a new bomb only adds its rays (and re-times the bombs it sets off), the map is rebuilt
+ * when a bomb went off, which is also the only time walls change. Searches run when the player reaches a tile or the map changed and stop
+ * SEARCH_DEPTH tiles away, so a decision costs a few microseconds whatever the arena size.
+ */
+public class ThreatBot implements Bot {
+
+	private static final int[] DIRECTIONS = {Game.UP, Game.DOWN, Game.LEFT, Game.RIGHT};
+	private static final int[] STEP_COL = {0, 0, -1, 1};
+	private static final int[] STEP_ROW = {-1, 1, 0, 0};
+
+	//Tiles no bomb reaches, search depth in tiles and ticks of slack around every predicted fire
+	private static final long SAFE = Long.MAX_VALUE;
+	private static final int SEARCH_DEPTH = 16;
+	private static final int MARGIN = 6;
+
+	private final SplittableRandom random;
+
+	//Threat map by tile: predicted fire from fireFrom to fireTo (game ticks), fireFrom is SAFE if no bomb reaches the tile. touched lists the tiles set.
+	private long[] fireFrom;
+	private long[] fireTo;
+	private int[] touched;
+	private int touchedCount;
+
+	//Bombs in the threat map by tile: fuse tick (0 - no bomb), fuse tick with chain reactions and range. known lists their tiles.
+	private long[] bombFuse;
+	private long[] bombFire;
+	private int[] bombRange;
+	private int[] known;
+	private int knownCount;
+	private int[] work; //Bombs to re-cast after their fire moved forward
+	private int version; //Changes every time the threat map does
+
+	//Search scratch (stamped, so nothing is cleared between searches)
+	private int[] seen;
+	private int[] queue;
+	private int[] first; //First step of the path to the tile
+	private int[] depth;
+	private int stamp;
+
+	//Rays of the bomb the bot considers dropping: tiles hit (stamped) and their fire tick
+	private int[] hit;
+	private int hitStamp;
+	private long hitFire;
+
+	//Goals found by the last search (-1 if none)
+	private int safeGoal;
+	private int powerUpGoal;
+	private int wallGoal;
+	private int chaseGoal;
+
+	//Current plan: next tile to walk to and the threat map version it was planned with
+	private int target = -1;
+	private int plannedVersion = -1;
+
+	private final int[] enemies = new int[Game.MAX_PLAYERS];
+	private int enemyCount;
+
+	/**
+	 * @param seed Seed of the bot's decisions
+	 */
+	public ThreatBot (long seed) {
+		random = new SplittableRandom(seed);
+	}
+
+	@Override
+	public int nextInput (Game game, int player) {
+		Character c = game.getPlayers()[player];
+		TileGrid grid = game.getGrid();
+		int tile = game.getConfig().getTileSize();
+		if (fireFrom == null || fireFrom.length != grid.getColumns()*grid.getRows()) {
+			allocate(grid.getColumns()*grid.getRows());
+		}
+		updateThreats(game);
+
+		boolean aligned = c.getX() % tile == 0 && c.getY() % tile == 0;
+		int here = grid.index(c.getTileX()/tile, c.getTileY()/tile);
+		if (target >= 0 && target != here && plannedVersion == version) {
+			return walk(c, grid, tile, target);
+		}
+		if (aligned == false && target >= 0 && target == here) {
+			return walk(c, grid, tile, target); //Center it before planning again
+		}
+		plannedVersion = version;
+		target = -1;
+
+		long now = game.getTick();
+		int ticksPerTile = (tile*Character.SUBPIXELS + c.getVelocity() - 1)/c.getVelocity();
+		findEnemies(game, player, grid, tile);
+
+		boolean threatened = fireFrom[here] != SAFE || game.isBurning(here % grid.getColumns(), here / grid.getColumns());
+		if (threatened == false && aligned && c.getBombsPlaced() < c.getBombsMax() && grid.hasBomb(here % grid.getColumns(), here / grid.getColumns()) == false
+				&& worthBombing(game, grid, here, now, c.getRange())) {
+			search(game, grid, here, now, ticksPerTile, true);
+			if (safeGoal >= 0 && safeGoal != here) {
+				target = first[safeGoal];
+				return Game.BOMB | walk(c, grid, tile, target);
+			}
+		}
+
+		search(game, grid, here, now, ticksPerTile, false);
+		int goal;
+		if (threatened) {
+			goal = safeGoal;
+		}
+		else if (powerUpGoal >= 0) {
+			goal = powerUpGoal;
+		}
+		else if (wallGoal >= 0) {
+			goal = wallGoal;
+		}
+		else {
+			goal = chaseGoal;
+		}
+		if (goal < 0 || goal == here) {
+			return 0;
+		}
+		target = first[goal];
+		return walk(c, grid, tile, target);
+	}
+
+	private void allocate (int tiles) {
+		fireFrom = new long[tiles];
+		fireTo = new long[tiles];
+		Arrays.fill(fireFrom, SAFE);
+		touched = new int[tiles];
+		touchedCount = 0;
+		bombFuse = new long[tiles];
+		bombFire = new long[tiles];
+		bombRange = new int[tiles];
+		known = new int[tiles];
+		knownCount = 0;
+		work = new int[16];
+		seen = new int[tiles];
+		queue = new int[tiles];
+		first = new int[tiles];
+		depth = new int[tiles];
+		hit = new int[tiles];
+	}
+
+	/**
+	 * @return Returns the input that walks the player towards the (neighbouring or current) tile.
+	 */
+	private int walk (Character c, TileGrid grid, int tile, int to) {
+		int x = (to % grid.getColumns())*tile;
+		int y = (to / grid.getColumns())*tile;
+		return (c.getX() < x) ? Game.RIGHT : (c.getX() > x) ? Game.LEFT : (c.getY() < y) ? Game.DOWN : (c.getY() > y) ? Game.UP : 0;
+	}
+
+	/**
+	 * Brings the threat map up to date with the bombs on the grid: new bombs are added, a bomb that went off rebuilds the map.
+	 * Bombs are recognized by tile and fuse tick, a new bomb on the same tile always has a later fuse. Cost is O(bombs) if nothing changed.
+	 */
+	private void updateThreats (Game game) {
+		TileGrid grid = game.getGrid();
+		int tile = game.getConfig().getTileSize();
+		List<Bomb> bombs = game.getBombs();
+		int matched = 0;
+		for (int i = 0; i < bombs.size(); i++) {
+			Bomb b = bombs.get(i);
+			if (bombFuse[grid.index(b.getX()/tile, b.getY()/tile)] == b.getFuseTick()) {
+				matched++;
+			}
+		}
+		if (matched == knownCount && matched == bombs.size()) {
+			return;
+		}
+		if (matched < knownCount) {
+			for (int i = 0; i < touchedCount; i++) {
+				fireFrom[touched[i]] = SAFE;
+			}
+			for (int i = 0; i < knownCount; i++) {
+				bombFuse[known[i]] = 0;
+			}
+			touchedCount = 0;
+			knownCount = 0;
+		}
+		long life = GameLoop.millisToTicks(game.getConfig().getExplosionLife());
+		for (int i = 0; i < bombs.size(); i++) {
+			Bomb b = bombs.get(i);
+			int t = grid.index(b.getX()/tile, b.getY()/tile);
+			if (bombFuse[t] != b.getFuseTick()) {
+				bombFuse[t] = b.getFuseTick();
+				bombFire[t] = Math.min(b.getFuseTick(), fireFrom[t]); //Set off earlier by a bomb reaching its tile
+				bombRange[t] = b.getRange();
+				known[knownCount++] = t;
+				cast(grid, t, life);
+			}
+		}
+		version++;
+	}
+
+	/**
+	 * Marks the tiles reached by the bomb on the tile, then re-casts every bomb its fire sets off earlier than expected.
+	 */
+	private void cast (TileGrid grid, int bomb, long life) {
+		int columns = grid.getColumns();
+		int size = 0;
+		work[size++] = bomb;
+		while (size > 0) {
+			int t = work[--size];
+			long fire = bombFire[t];
+			int col = t % columns;
+			int row = t / columns;
+			mark(t, fire, life);
+			for (int d = 0; d < DIRECTIONS.length; d++) {
+				int reach = ray(grid, col, row, d, bombRange[t]);
+				for (int i = 1; i <= reach; i++) {
+					int r = t + i*(STEP_COL[d] + STEP_ROW[d]*columns);
+					mark(r, fire, life);
+					if (bombFuse[r] != 0 && bombFire[r] > fire) {
+						bombFire[r] = fire;
+						if (size == work.length) {
+							work = Arrays.copyOf(work, 2*size);
+						}
+						work[size++] = r;
+					}
+				}
+			}
+		}
+	}
+
+	private void mark (int t, long fire, long life) {
+		if (fireFrom[t] == SAFE) {
+			touched[touchedCount++] = t;
+			fireFrom[t] = fire;
+			fireTo[t] = fire + life;
+		}
+		else {
+			fireFrom[t] = Math.min(fireFrom[t], fire);
+			fireTo[t] = Math.max(fireTo[t], fire + life);
+		}
+	}
+
+	/**
+	 * Number of tiles a ray covers, as in Game.propagate, except that crumbling walls and powerUps are not counted as blocking:
+	 * they are gone or burn before the ray, which errs on the safe side.
+	 */
+	private int ray (TileGrid grid, int col, int row, int d, int range) {
+		if ((STEP_COL[d] != 0 && row % 2 == 0) || (STEP_ROW[d] != 0 && col % 2 == 0)) {
+			return 0;
+		}
+		int reach = 0;
+		for (int i = 1; i <= range; i++) {
+			int terrain = grid.getTerrain(col + i*STEP_COL[d], row + i*STEP_ROW[d]);
+			if (terrain == TileGrid.OUTER_WALL || terrain == TileGrid.WALL) {
+				break;
+			}
+			reach = i;
+		}
+		return reach;
+	}
+
+	/**
+	 * Casts the rays of a bomb dropped on the tile now (and of the bombs it would set off) into the hit table.
+	 * @return Returns true if the bomb would break a wall or reach another player.
+	 */
+	private boolean worthBombing (Game game, TileGrid grid, int bomb, long now, int range) {
+		int columns = grid.getColumns();
+		hitStamp++;
+		hitFire = Math.min(now + 1 + Bomb.fuseTicks(game.getConfig()), fireFrom[bomb]); //Placed during the next step
+		boolean worth = false;
+		int size = 0;
+		work[size++] = bomb;
+		hit[bomb] = hitStamp;
+		while (size > 0) {
+			int t = work[--size];
+			int col = t % columns;
+			int row = t / columns;
+			int tRange = (t == bomb) ? range : bombRange[t];
+			for (int d = 0; d < DIRECTIONS.length; d++) {
+				int reach = ray(grid, col, row, d, tRange);
+				if (t == bomb && reach < tRange && grid.getTerrain(col + (reach+1)*STEP_COL[d], row + (reach+1)*STEP_ROW[d]) == TileGrid.WALL) {
+					worth = true;
+				}
+				for (int i = 1; i <= reach; i++) {
+					int r = t + i*(STEP_COL[d] + STEP_ROW[d]*columns);
+					if (hit[r] == hitStamp) {
+						continue;
+					}
+					hit[r] = hitStamp;
+					if (bombFuse[r] != 0 && bombFire[r] > hitFire) {
+						if (size == work.length) {
+							work = Arrays.copyOf(work, 2*size);
+						}
+						work[size++] = r;
+					}
+				}
+			}
+		}
+		for (int e = 0; e < enemyCount; e++) {
+			if (hit[enemies[e]] == hitStamp || enemies[e] == bomb) {
+				worth = true;
+			}
+		}
+		return worth;
+	}
+
+	private void findEnemies (Game game, int player, TileGrid grid, int tile) {
+		enemyCount = 0;
+		Character[] players = game.getPlayers();
+		for (int p = 0; p < players.length; p++) {
+			if (p != player && players[p].isAlive()) {
+				enemies[enemyCount++] = grid.index(players[p].getTileX()/tile, players[p].getTileY()/tile);
+			}
+		}
+	}
+
+	/**
+	 * Breadth-first search from the tile, at most SEARCH_DEPTH tiles deep. A tile is entered only if it is free and will not burn
+	 * while the player passes it, walking at its current velocity. Stores the closest goal of every kind.
+	 * @param bombed True to add the rays of the bomb in the hit table (dropped now)
+	 */
+	private void search (Game game, TileGrid grid, int start, long now, int ticksPerTile, boolean bombed) {
+		int columns = grid.getColumns();
+		long life = GameLoop.millisToTicks(game.getConfig().getExplosionLife());
+		safeGoal = -1;
+		powerUpGoal = -1;
+		wallGoal = -1;
+		chaseGoal = -1;
+		int chaseDistance = Integer.MAX_VALUE;
+		stamp++;
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = start;
+		seen[start] = stamp;
+		depth[start] = 0;
+		first[start] = start;
+		int rotation = random.nextInt(DIRECTIONS.length); //Ties between equally close goals go a random way
+		while (head < tail) {
+			int current = queue[head++];
+			int col = current % columns;
+			int row = current / columns;
+			if (fireFrom[current] == SAFE && (bombed == false || hit[current] != hitStamp) && game.isBurning(col, row) == false) {
+				if (safeGoal < 0) {
+					safeGoal = current;
+				}
+				if (powerUpGoal < 0 && grid.getPowerUp(col, row) != 0) {
+					powerUpGoal = current;
+				}
+				if (wallGoal < 0 && nextToWall(grid, col, row)) {
+					wallGoal = current;
+				}
+				int distance = enemyDistance(columns, col, row);
+				if (distance < chaseDistance) {
+					chaseDistance = distance;
+					chaseGoal = current;
+				}
+			}
+			if (depth[current] == SEARCH_DEPTH) {
+				continue;
+			}
+			long enter = now + (long)depth[current]*ticksPerTile;
+			long leave = enter + 2*ticksPerTile;
+			for (int i = 0; i < DIRECTIONS.length; i++) {
+				int d = (i + rotation) % DIRECTIONS.length;
+				int c = col + STEP_COL[d];
+				int r = row + STEP_ROW[d];
+				int next = current + STEP_COL[d] + STEP_ROW[d]*columns;
+				if (seen[next] == stamp || grid.getTerrain(c, r) != TileGrid.EMPTY || grid.hasBomb(c, r) || game.isBurning(c, r)) {
+					continue;
+				}
+				if (fireFrom[next] != SAFE && fireFrom[next] - MARGIN < leave && fireTo[next] + MARGIN > enter) {
+					continue;
+				}
+				if (bombed && hit[next] == hitStamp && hitFire - MARGIN < leave && hitFire + life + MARGIN > enter) {
+					continue;
+				}
+				seen[next] = stamp;
+				depth[next] = depth[current]+1;
+				first[next] = (current == start) ? next : first[current];
+				queue[tail++] = next;
+			}
+		}
+	}
+
+	private boolean nextToWall (TileGrid grid, int col, int row) {
+		for (int d = 0; d < DIRECTIONS.length; d++) {
+			if (grid.getTerrain(col+STEP_COL[d], row+STEP_ROW[d]) == TileGrid.WALL) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return Returns the distance in tiles (along the grid lines) to the closest other player, MAX_VALUE if there is none.
+	 */
+	private int enemyDistance (int columns, int col, int row) {
+		int distance = Integer.MAX_VALUE;
+		for (int e = 0; e < enemyCount; e++) {
+			distance = Math.min(distance, Math.abs(enemies[e] % columns - col) + Math.abs(enemies[e] / columns - row));
+		}
+		return distance;
+	}
+}
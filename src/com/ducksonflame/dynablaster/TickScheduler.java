@@ -0,0 +1,223 @@
+package com.ducksonflame.dynablaster;
+
+/**
+ * Hashed time wheel for all deferred game events (bomb fuses, explosion ends, wall and power-up removal). Sprite animations run on the Animator.
+ * Delays and periods are measured in GameLoop ticks. The wheel is advanced once per tick by the game loop, so no task ever
+ * needs its own thread.
+ * <br>Each bucket holds a doubly linked list of tasks, which makes scheduling and cancelling O(1).
+ * Tasks run on the thread calling advance(), outside of the scheduler's lock, so they may freely schedule or cancel other tasks.
+ * <br>Gauges: getLiveTasks() and getFiredPerSecond().
+ */
+public class TickScheduler {
+
+	private static final int WHEEL_SIZE = 256; //Must be a power of two
+	private static final int MASK = WHEEL_SIZE - 1;
+
+	private final TickTask[] wheel = new TickTask[WHEEL_SIZE];
+	private TickTask[] due = new TickTask[16];
+	private int dueCount;
+	private long tick;
+	private boolean shutDown;
+
+	//Gauges
+	private volatile int liveTasks;
+	private volatile int firedPerSecond;
+	private volatile long totalFired;
+	private int firedInWindow;
+	private int windowTicks;
+
+	/**
+	 * Schedules the task to run once after the given number of ticks.
+	 * @param task Task to run
+	 * @param delay Delay in ticks (0 means on the next tick)
+	 */
+	public void schedule (TickTask task, int delay) {
+		scheduleAtFixedRate(task, delay, 0);
+	}
+
+	/**
+	 * Schedules the task for repeated execution.
+	 * @param task Task to run
+	 * @param delay Delay before the first run in ticks (0 means on the next tick)
+	 * @param period Ticks between runs, 0 for a one-time task
+	 */
+	public synchronized void scheduleAtFixedRate (TickTask task, int delay, int period) {
+		if (delay < 0 || period < 0) {
+			throw new IllegalArgumentException("Negative delay or period");
+		}
+		if (task.state == TickTask.SCHEDULED || task.state == TickTask.PENDING) {
+			throw new IllegalStateException("Task already scheduled");
+		}
+		task.scheduler = this;
+		if (shutDown) {
+			//Late registrations from a finished match are dropped silently
+			task.state = TickTask.CANCELLED;
+			return;
+		}
+		task.period = period;
+		task.deadline = tick + Math.max(1, delay);
+		link(task);
+		liveTasks++;
+	}
+
+	/**
+	 * Moves the wheel by one tick and runs every task that is due.
+	 */
+	public void advance () {
+		int count;
+		synchronized (this) {
+			tick++;
+			TickTask t = wheel[(int)(tick & MASK)];
+			while (t != null) {
+				TickTask next = t.next;
+				if (t.deadline <= tick) {
+					unlink(t);
+					t.state = TickTask.PENDING;
+					if (dueCount == due.length) {
+						TickTask[] bigger = new TickTask[due.length*2];
+						System.arraycopy(due, 0, bigger, 0, dueCount);
+						due = bigger;
+					}
+					due[dueCount++] = t;
+				}
+				t = next;
+			}
+			count = dueCount;
+		}
+
+		int fired = 0;
+		for (int i = 0; i < count; i++) {
+			TickTask t = due[i];
+			boolean run;
+			synchronized (this) {
+				run = t.state == TickTask.PENDING;
+			}
+			if (run) {
+				try {
+					t.run();
+				}
+				catch (RuntimeException e) {
+					e.printStackTrace();
+				}
+				fired++;
+			}
+			synchronized (this) {
+				due[i] = null;
+				if (t.state == TickTask.PENDING && t.period > 0 && !shutDown) {
+					t.deadline = tick + t.period;
+					link(t);
+				}
+				else {
+					if (t.state == TickTask.PENDING) {
+						t.state = TickTask.EXECUTED;
+					}
+					liveTasks--;
+				}
+			}
+		}
+
+		synchronized (this) {
+			dueCount = 0;
+			totalFired += fired;
+			firedInWindow += fired;
+			windowTicks++;
+			if (windowTicks == GameLoop.TICK_RATE) {
+				firedPerSecond = firedInWindow;
+				firedInWindow = 0;
+				windowTicks = 0;
+			}
+		}
+	}
+
+	/**
+	 * Cancels all tasks and refuses new ones. Used when a Board is torn down.
+	 */
+	public synchronized void cancel () {
+		shutDown = true;
+		for (int i = 0; i < WHEEL_SIZE; i++) {
+			TickTask t = wheel[i];
+			while (t != null) {
+				TickTask next = t.next;
+				t.prev = null;
+				t.next = null;
+				t.state = TickTask.CANCELLED;
+				liveTasks--;
+				t = next;
+			}
+			wheel[i] = null;
+		}
+		for (int i = 0; i < dueCount; i++) {
+			if (due[i] != null && due[i].state == TickTask.PENDING) {
+				due[i].state = TickTask.CANCELLED;
+			}
+		}
+	}
+
+	/**
+	 * Cancels a single task. Called by TickTask.cancel().
+	 */
+	synchronized boolean cancel (TickTask t) {
+		if (t.state == TickTask.SCHEDULED) {
+			unlink(t);
+			t.state = TickTask.CANCELLED;
+			liveTasks--;
+			return true;
+		}
+		if (t.state == TickTask.PENDING) {
+			t.state = TickTask.CANCELLED;
+			return true;
+		}
+		if (t.state == TickTask.VIRGIN) {
+			t.state = TickTask.CANCELLED;
+		}
+		return false;
+	}
+
+	private void link (TickTask t) {
+		int b = (int)(t.deadline & MASK);
+		t.bucket = b;
+		t.prev = null;
+		t.next = wheel[b];
+		if (wheel[b] != null) {
+			wheel[b].prev = t;
+		}
+		wheel[b] = t;
+		t.state = TickTask.SCHEDULED;
+	}
+
+	private void unlink (TickTask t) {
+		if (t.prev != null) {
+			t.prev.next = t.next;
+		}
+		else {
+			wheel[t.bucket] = t.next;
+		}
+		if (t.next != null) {
+			t.next.prev = t.prev;
+		}
+		t.prev = null;
+		t.next = null;
+	}
+
+	/**
+	 * @return Number of tasks that are scheduled and not yet finished or cancelled.
+	 */
+	public int getLiveTasks () {
+		return liveTasks;
+	}
+
+	/**
+	 * @return Number of task executions during the last full second of game time.
+	 */
+	public int getFiredPerSecond () {
+		return firedPerSecond;
+	}
+
+	public long getTotalFired () {
+		return totalFired;
+	}
+
+	public synchronized long getTick () {
+		return tick;
+	}
+}
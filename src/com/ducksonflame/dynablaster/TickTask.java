@@ -0,0 +1,41 @@
+package com.ducksonflame.dynablaster;
+
+/**
+ * Task that can be scheduled on a TickScheduler for one-time or repeated execution, in the same spirit as java.util.TimerTask.
+ * A task can be scheduled again once it has run or was cancelled, so long-lived entities keep a single task. Cancelling is O(1) and may be done from any thread, including from inside run().
+ */
+public abstract class TickTask implements Runnable {
+
+	//Task states
+	static final int VIRGIN = 0;
+	static final int SCHEDULED = 1;
+	static final int PENDING = 2;
+	static final int EXECUTED = 3;
+	static final int CANCELLED = 4;
+
+	//Managed by the TickScheduler (guarded by the scheduler's lock)
+	volatile TickScheduler scheduler;
+	int state = VIRGIN;
+	long deadline;
+	int period;
+	int bucket;
+	TickTask prev;
+	TickTask next;
+
+	/**
+	 * Cancels the task. A one-time task that has not run yet will never run; a repeating task will not run again.
+	 * @return Returns true if this call prevented at least one future execution.
+	 */
+	public boolean cancel () {
+		TickScheduler s = scheduler;
+		if (s == null) {
+			state = CANCELLED;
+			return false;
+		}
+		return s.cancel(this);
+	}
+
+	public boolean isCancelled () {
+		return state == CANCELLED;
+	}
+}
@@ -0,0 +1,264 @@
+package com.ducksonflame.dynablaster;
+
+import java.util.Arrays;
+
+/**
+ * Compact arena state - one short per tile, outer walls included (tile (0, 0) is the top left outer wall).
+ * Every collision query is a single array read, and the whole grid can be copied or hashed cheaply.
+ * <br>Tiles are stored in CHUNK_SIZE x CHUNK_SIZE chunks that copies share until the next write (copy on write),
+ * so the per-tick snapshot of a 256x256 arena costs a few thousand references instead of the whole grid.
+ * <br><br>Tile layout:
+ * <br>bits 0-2 - terrain: EMPTY, OUTER_WALL, PILLAR, WALL, CRUMBLING_1, CRUMBLING_2
+ * <br>bit 3 - bomb, bit 4 - bomb animation frame
+ * <br>bits 5-6 - powerUp type (0 - none, 1 - range, 2 - speed, 3 - bombs), bits 7-9 - powerUp frame + 1
+ * <br>bit 10 - explosion center
+ * <br><br>Every write also records the current stamp (the Game's tick) for the tile, so renderers can repaint only the tiles
+ * that changed since the tick they last drew. Stamps are not part of equals/hashCode.
+ * <br><br>Timers and animations stay in the objects that own them (Bomb, PowerUp, DestrWalls). The Game keeps them in side arrays indexed by tile.
+ */
+public class TileGrid {
+
+	//Terrain
+	public static final int EMPTY = 0;
+	public static final int OUTER_WALL = 1;
+	public static final int PILLAR = 2;
+	public static final int WALL = 3;
+	public static final int CRUMBLING_1 = 4;
+	public static final int CRUMBLING_2 = 5;
+
+	//Bit layout
+	private static final int TERRAIN_MASK = 0x0007;
+	private static final int BOMB = 0x0008;
+	private static final int BOMB_FRAME = 0x0010;
+	private static final int POWER_UP_SHIFT = 5;
+	private static final int POWER_UP_MASK = 0x0003 << POWER_UP_SHIFT;
+	private static final int POWER_UP_FRAME_SHIFT = 7;
+	private static final int POWER_UP_FRAME_MASK = 0x0007 << POWER_UP_FRAME_SHIFT;
+	private static final int EXPLOSION = 0x0400;
+
+	//Chunks of CHUNK_SIZE x CHUNK_SIZE tiles, shared with copies until written (copy on write)
+	private static final int CHUNK_SHIFT = 4;
+	public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private final int columns;
+	private final int rows;
+	private final int chunkColumns;
+	private final short[][] tiles; //Per chunk, row major inside the chunk
+	private final int[][] changed; //Stamp of the last write per tile, per chunk
+	private final int[] owner; //Generation that owns the chunk arrays, chunks of older generations are shared with a copy
+	private int generation;
+	private int stamp;
+
+	/**
+	 * Creates an empty arena with outer walls and pillars.
+	 * @param freeColumns Number of free columns (GameConfig columns)
+	 * @param freeRows Number of free rows (GameConfig rows)
+	 */
+	public TileGrid (int freeColumns, int freeRows) {
+		columns = 2*freeColumns+1;
+		rows = 2*freeRows+1;
+		chunkColumns = (columns + CHUNK_MASK) >> CHUNK_SHIFT;
+		int chunks = chunkColumns * ((rows + CHUNK_MASK) >> CHUNK_SHIFT);
+		tiles = new short[chunks][CHUNK_SIZE*CHUNK_SIZE];
+		changed = new int[chunks][CHUNK_SIZE*CHUNK_SIZE];
+		owner = new int[chunks];
+
+		for (int col = 0; col < columns; col++) {
+			for (int row = 0; row < rows; row++) {
+				if (col == 0 || row == 0 || col == columns-1 || row == rows-1) {
+					tiles[chunk(col, row)][offset(col, row)] = OUTER_WALL;
+				}
+				else if (col % 2 == 0 && row % 2 == 0) {
+					tiles[chunk(col, row)][offset(col, row)] = PILLAR;
+				}
+			}
+		}
+	}
+
+	private TileGrid (TileGrid other) {
+		columns = other.columns;
+		rows = other.rows;
+		chunkColumns = other.chunkColumns;
+		tiles = other.tiles.clone();
+		changed = other.changed.clone();
+		owner = new int[tiles.length];
+		generation = 1; //Owns nothing, the copy is read only
+		stamp = other.stamp;
+	}
+
+	/**
+	 * Returns an independent copy of the grid. The chunks are shared until this grid writes to them, so the cost is
+	 * O(number of chunks) plus one chunk clone per chunk written afterwards - snapshots of large arenas stay cheap.
+	 * The copy must not be modified.
+	 * @return Read only copy
+	 */
+	public TileGrid copy () {
+		TileGrid copy = new TileGrid(this);
+		generation++;
+		return copy;
+	}
+
+	/**
+	 * @return Returns the flat tile index (row*columns + col), e.g. for side arrays indexed by tile.
+	 */
+	public int index (int col, int row) {
+		return row*columns + col;
+	}
+
+	private int chunk (int col, int row) {
+		return (row >> CHUNK_SHIFT)*chunkColumns + (col >> CHUNK_SHIFT);
+	}
+
+	private static int offset (int col, int row) {
+		return ((row & CHUNK_MASK) << CHUNK_SHIFT) | (col & CHUNK_MASK);
+	}
+
+	private short get (int col, int row) {
+		return tiles[chunk(col, row)][offset(col, row)];
+	}
+
+	/**
+	 * Stores a tile, cloning its chunk first if it is still shared with a copy, and records the stamp.
+	 */
+	private void set (int col, int row, int tile) {
+		int c = chunk(col, row);
+		if (owner[c] != generation) {
+			tiles[c] = tiles[c].clone();
+			changed[c] = changed[c].clone();
+			owner[c] = generation;
+		}
+		int o = offset(col, row);
+		tiles[c][o] = (short)tile;
+		changed[c][o] = stamp;
+	}
+
+	/**
+	 * Sets the stamp recorded by all following writes. Called by the Game at the start of every step.
+	 * @param tick Current tick
+	 */
+	public void setStamp (long tick) {
+		stamp = (int)tick;
+	}
+
+	/**
+	 * @return Returns the stamp (tick) of the last change on the tile.
+	 */
+	public int getChangedTick (int col, int row) {
+		return changed[chunk(col, row)][offset(col, row)];
+	}
+
+	/**
+	 * Marks the tile as changed without changing it, for state kept outside the grid (e.g. explosion rays).
+	 */
+	public void touch (int col, int row) {
+		set(col, row, get(col, row));
+	}
+
+	public int getTerrain (int col, int row) {
+		return get(col, row) & TERRAIN_MASK;
+	}
+
+	public void setTerrain (int col, int row, int terrain) {
+		set(col, row, (get(col, row) & ~TERRAIN_MASK) | terrain);
+	}
+
+	/**
+	 * @return Returns true if there is a destructible wall (intact or crumbling) on the tile.
+	 */
+	public boolean isWall (int col, int row) {
+		return (get(col, row) & TERRAIN_MASK) >= WALL;
+	}
+
+	public boolean hasBomb (int col, int row) {
+		return (get(col, row) & BOMB) != 0;
+	}
+
+	public void setBomb (int col, int row, boolean bomb) {
+		setFlag(col, row, BOMB, bomb);
+		if (bomb == false) {
+			setFlag(col, row, BOMB_FRAME, false);
+		}
+	}
+
+	public int getBombFrame (int col, int row) {
+		return (get(col, row) & BOMB_FRAME) != 0 ? 1 : 0;
+	}
+
+	public void setBombFrame (int col, int row, int frame) {
+		setFlag(col, row, BOMB_FRAME, frame != 0);
+	}
+
+	/**
+	 * @return Returns the powerUp type on the tile (1 - range, 2 - speed, 3 - bombs) or 0 if there is none.
+	 */
+	public int getPowerUp (int col, int row) {
+		return (get(col, row) & POWER_UP_MASK) >> POWER_UP_SHIFT;
+	}
+
+	/**
+	 * Places a powerUp of the given type on the tile (0 removes it). The frame is reset to PowerUp.FRAME_NONE.
+	 */
+	public void setPowerUp (int col, int row, int type) {
+		set(col, row, (get(col, row) & ~(POWER_UP_MASK | POWER_UP_FRAME_MASK)) | (type << POWER_UP_SHIFT));
+	}
+
+	public int getPowerUpFrame (int col, int row) {
+		return ((get(col, row) & POWER_UP_FRAME_MASK) >> POWER_UP_FRAME_SHIFT) - 1;
+	}
+
+	public void setPowerUpFrame (int col, int row, int frame) {
+		set(col, row, (get(col, row) & ~POWER_UP_FRAME_MASK) | ((frame+1) << POWER_UP_FRAME_SHIFT));
+	}
+
+	public boolean hasExplosion (int col, int row) {
+		return (get(col, row) & EXPLOSION) != 0;
+	}
+
+	public void setExplosion (int col, int row, boolean explosion) {
+		setFlag(col, row, EXPLOSION, explosion);
+	}
+
+	private void setFlag (int col, int row, int flag, boolean on) {
+		set(col, row, on ? (get(col, row) | flag) : (get(col, row) & ~flag));
+	}
+
+	public int getColumns () {
+		return columns;
+	}
+
+	public int getRows () {
+		return rows;
+	}
+
+	/**
+	 * Same value as Arrays.hashCode over all tiles in row major order.
+	 */
+	@Override
+	public int hashCode () {
+		int hash = 1;
+		for (int row = 0; row < rows; row++) {
+			for (int col = 0; col < columns; col++) {
+				hash = 31*hash + get(col, row);
+			}
+		}
+		return hash;
+	}
+
+	@Override
+	public boolean equals (Object o) {
+		if (o instanceof TileGrid == false) {
+			return false;
+		}
+		TileGrid other = (TileGrid)o;
+		if (columns != other.columns || rows != other.rows) {
+			return false;
+		}
+		for (int c = 0; c < tiles.length; c++) {
+			if (tiles[c] != other.tiles[c] && Arrays.equals(tiles[c], other.tiles[c]) == false) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,246 @@
+package com.ducksonflame.dynablaster;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Headless batch runner for balance tuning: plays bot-vs-bot matches on all cores and prints aggregated statistics
+ * (win rate per player, match length, bombs placed, powerUp pickups) together with matches/s.
+ * <br>Matches are split across a ForkJoinPool. Every match is an independent Game (no shared state, each with its own seed),
+ * so the runner scales with the number of cores.
+ * <br>Usage: Tournament [--matches=N] [--threads=N] [--maxTicks=N] [--scaling] [--key=value settings, see GameConfig]
+ * <br>Players listed in the bots setting are played by ThreatBots, all others by WanderBots.
+ * <br>--seed makes the whole tournament reproducible, match seeds are derived from it. --scaling repeats the run with 1, 2, 4... threads
+ * up to --threads and prints the speedup per core count.
+ */
+public class Tournament {
+
+	//Matches played by one task without splitting further
+	private static final int BATCH = 8;
+
+	private final GameConfig config;
+	private final long seed;
+	private final int maxTicks;
+
+	/**
+	 * @param config Settings of every match (its seed, if set, seeds the tournament)
+	 * @param maxTicks Matches still running after this many ticks end as a draw
+	 */
+	public Tournament (GameConfig config, int maxTicks) {
+		this.config = config;
+		this.seed = config.hasSeed() ? config.getSeed() : new SplittableRandom().nextLong();
+		this.maxTicks = maxTicks;
+	}
+
+	public static void main (String[] args) throws IOException {
+
+		int matches = 10000;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int maxTicks = GameLoop.TICK_RATE*300;
+		boolean scaling = false;
+		List<String> settings = new ArrayList<String>();
+		for (String arg : args) {
+			if (arg.startsWith("--matches=")) {
+				matches = Integer.parseInt(arg.substring("--matches=".length()));
+			}
+			else if (arg.startsWith("--threads=")) {
+				threads = Integer.parseInt(arg.substring("--threads=".length()));
+			}
+			else if (arg.startsWith("--maxTicks=")) {
+				maxTicks = Integer.parseInt(arg.substring("--maxTicks=".length()));
+			}
+			else if (arg.equals("--scaling")) {
+				scaling = true;
+			}
+			else {
+				settings.add(arg);
+			}
+		}
+
+		Tournament tournament = new Tournament(GameConfig.fromArgs(settings.toArray(new String[settings.size()])), maxTicks);
+		System.out.println("Seed " + tournament.seed + ", " + matches + " matches, " + threads + " threads");
+		if (scaling) {
+			double single = 0;
+			for (int t = 1; ; t = Math.min(2*t, threads)) {
+				long start = System.nanoTime();
+				tournament.run(matches, t);
+				double rate = matches / ((System.nanoTime() - start) / 1e9);
+				if (t == 1) {
+					single = rate;
+				}
+				System.out.println(String.format("%3d threads: %10.1f matches/s, speedup %5.2f, efficiency %3.0f%%", t, rate, rate/single, 100*rate/single/t));
+				if (t == threads) {
+					break;
+				}
+			}
+			return;
+		}
+		long start = System.nanoTime();
+		Stats stats = tournament.run(matches, threads);
+		stats.print(System.nanoTime() - start);
+	}
+
+	/**
+	 * Plays matches 0 to count-1 of the tournament. The result does not depend on the number of threads.
+	 * @param count Number of matches
+	 * @param threads Parallelism of the pool
+	 * @return Returns the aggregated statistics.
+	 */
+	public Stats run (int count, int threads) {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			return pool.invoke(new Matches(0, count));
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Plays one match between bots: ThreatBots for the players in the bots setting, WanderBots for the others.
+	 * @param match Number of the match in the tournament, picks its seed
+	 * @param stats Statistics to add the result to
+	 */
+	public void play (int match, Stats stats) {
+		long matchSeed = seed + match*0x9E3779B97F4A7C15L;
+		Game game = new Game(config.with("seed", String.valueOf(matchSeed)));
+		Bot[] bots = new Bot[config.getPlayers()];
+		for (int p = 0; p < bots.length; p++) {
+			bots[p] = config.isBot(p) ? new ThreatBot(matchSeed ^ (p+1)) : new WanderBot(matchSeed ^ (p+1));
+		}
+		int[] inputs = new int[bots.length];
+		while (game.isOver() == false && game.getTick() < maxTicks) {
+			for (int p = 0; p < bots.length; p++) {
+				inputs[p] = game.getPlayers()[p].isAlive() ? bots[p].nextInput(game, p) : 0;
+			}
+			game.step(inputs);
+		}
+		stats.add(game);
+		game.dispose();
+	}
+
+	/**
+	 * Range of matches, split in halves until small enough to play in one go.
+	 */
+	@SuppressWarnings("serial")
+	private class Matches extends RecursiveTask<Stats> {
+
+		private final int from;
+		private final int to;
+
+		Matches (int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Stats compute () {
+			if (to - from <= BATCH) {
+				Stats stats = new Stats(config.getPlayers());
+				for (int match = from; match < to; match++) {
+					play(match, stats);
+				}
+				return stats;
+			}
+			int middle = (from + to) >>> 1;
+			Matches left = new Matches(from, middle);
+			left.fork();
+			Stats stats = new Matches(middle, to).compute();
+			stats.add(left.join());
+			return stats;
+		}
+	}
+
+	/**
+	 * Aggregated results of a set of matches.
+	 */
+	public static class Stats {
+
+		private final int players;
+		private long matches;
+		private final long[] wins; //By player number, 0 - draws (no winner after maxTicks)
+		private long ticks;
+		private long minTicks = Long.MAX_VALUE;
+		private long maxTicks;
+		private final long[] bombs; //By player index
+		private final long[] pickUps = new long[4]; //By powerUp type
+
+		public Stats (int players) {
+			this.players = players;
+			wins = new long[players+1];
+			bombs = new long[players];
+		}
+
+		/**
+		 * Adds a finished (or timed out) match.
+		 */
+		public void add (Game game) {
+			matches++;
+			wins[game.getWinner()]++;
+			ticks += game.getTick();
+			minTicks = Math.min(minTicks, game.getTick());
+			maxTicks = Math.max(maxTicks, game.getTick());
+			for (int p = 0; p < players; p++) {
+				Character c = game.getPlayers()[p];
+				bombs[p] += c.getBombsTotal();
+				for (int type = 1; type < pickUps.length; type++) {
+					pickUps[type] += c.getPickUps(type);
+				}
+			}
+		}
+
+		/**
+		 * Merges other statistics into these.
+		 */
+		public void add (Stats other) {
+			matches += other.matches;
+			ticks += other.ticks;
+			minTicks = Math.min(minTicks, other.minTicks);
+			maxTicks = Math.max(maxTicks, other.maxTicks);
+			for (int i = 0; i < wins.length; i++) {
+				wins[i] += other.wins[i];
+			}
+			for (int p = 0; p < players; p++) {
+				bombs[p] += other.bombs[p];
+			}
+			for (int type = 1; type < pickUps.length; type++) {
+				pickUps[type] += other.pickUps[type];
+			}
+		}
+
+		/**
+		 * Prints the statistics.
+		 * @param nanos Wall time taken by the matches
+		 */
+		public void print (long nanos) {
+			double seconds = nanos / 1e9;
+			System.out.println(String.format("%d matches in %.2f s: %.1f matches/s, %.0f ticks/s", matches, seconds, matches/seconds, ticks/seconds));
+			System.out.println(String.format("Match length: mean %.1f s, min %.1f s, max %.1f s (game time)",
+					ticks/(double)matches/GameLoop.TICK_RATE, minTicks/(double)GameLoop.TICK_RATE, maxTicks/(double)GameLoop.TICK_RATE));
+			for (int p = 0; p < players; p++) {
+				System.out.println(String.format("Player %d: %5.1f%% wins, %.1f bombs per match", p+1, 100.0*wins[p+1]/matches, bombs[p]/(double)matches));
+			}
+			System.out.println(String.format("Draws: %.1f%%", 100.0*wins[0]/matches));
+			System.out.println(String.format("PowerUps picked up per match: range %.2f, speed %.2f, bombs %.2f",
+					pickUps[1]/(double)matches, pickUps[2]/(double)matches, pickUps[3]/(double)matches));
+		}
+
+		public long getMatches () {
+			return matches;
+		}
+
+		/**
+		 * @param player Player number, 0 for draws
+		 */
+		public long getWins (int player) {
+			return wins[player];
+		}
+
+		public long getTicks () {
+			return ticks;
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package com.ducksonflame.dynablaster;
+import java.awt.Rectangle;
+
+/**
+ * Camera for one view of the arena - a rectangle of the Board showing a part of the arena 1:1, positioned at the camera (model pixels).
+ * <br>The camera follows a single player (kept in place once the player is dead) or the midpoint of all living players
+ * and is clamped to the arena. The tiles under the view are kept as the visible tile rectangle, which the Board uses
+ * to cull everything else before drawing.
+ */
+public class Viewport {
+
+	//Target of the camera: a player index or the midpoint of all living players
+	public static final int MIDPOINT = -1;
+
+	private final Rectangle screen; //Area of the Board the view is drawn to
+	private final int target;
+	private final int tileSize;
+	private final int arenaWidth;
+	private final int arenaHeight;
+
+	private int cameraX;
+	private int cameraY;
+	private final Rectangle visible = new Rectangle(); //First column and row, number of columns and rows
+	private boolean placed; //False until the camera has been positioned once
+	private int drawnCameraX;
+	private int drawnCameraY;
+
+	/**
+	 * @param screen Area of the Board the view is drawn to
+	 * @param target Index of the followed player or MIDPOINT
+	 * @param tileSize Tile size in pixels
+	 * @param grid Arena shown in the view
+	 */
+	public Viewport (Rectangle screen, int target, int tileSize, TileGrid grid) {
+		this.screen = new Rectangle(screen);
+		this.target = target;
+		this.tileSize = tileSize;
+		this.arenaWidth = grid.getColumns()*tileSize;
+		this.arenaHeight = grid.getRows()*tileSize;
+		updateVisible();
+	}
+
+	/**
+	 * Moves the camera to the target and works out the visible tiles. Does nothing if the whole arena fits into the view.
+	 * @param state Snapshot to follow
+	 * @param alpha Fraction of the tick passed since the snapshot was published
+	 */
+	public void follow (GameSnapshot state, double alpha) {
+		if (isScrolling() == false) {
+			return;
+		}
+		int sumX = 0;
+		int sumY = 0;
+		int count = 0;
+		for (int p = 0; p < state.getPlayerCount(); p++) {
+			if ((target == MIDPOINT || target == p) && state.isPlayerAlive(p)) {
+				sumX += state.getPlayerX(p, alpha);
+				sumY += state.getPlayerY(p, alpha);
+				count++;
+			}
+		}
+		if (count > 0) {
+			cameraX = sumX/count + tileSize/2 - screen.width/2;
+			cameraY = sumY/count + tileSize/2 - screen.height/2;
+		}
+		cameraX = Math.max(0, Math.min(cameraX, arenaWidth - screen.width));
+		cameraY = Math.max(0, Math.min(cameraY, arenaHeight - screen.height));
+		updateVisible();
+	}
+
+	private void updateVisible () {
+		int firstCol = cameraX/tileSize;
+		int firstRow = cameraY/tileSize;
+		int lastCol = Math.min(arenaWidth-1, cameraX+screen.width-1)/tileSize;
+		int lastRow = Math.min(arenaHeight-1, cameraY+screen.height-1)/tileSize;
+		visible.setBounds(firstCol, firstRow, lastCol - firstCol + 1, lastRow - firstRow + 1);
+	}
+
+	/**
+	 * @return Returns true if the arena is larger than the view, i.e. the camera can move.
+	 */
+	public boolean isScrolling () {
+		return screen.width < arenaWidth || screen.height < arenaHeight;
+	}
+
+	/**
+	 * @return Returns true if the camera moved since the last call to drawn() (or was never drawn).
+	 */
+	public boolean isMoved () {
+		return placed == false || cameraX != drawnCameraX || cameraY != drawnCameraY;
+	}
+
+	/**
+	 * Remembers the current camera position as drawn.
+	 */
+	public void drawn () {
+		placed = true;
+		drawnCameraX = cameraX;
+		drawnCameraY = cameraY;
+	}
+
+	/**
+	 * @return Returns the Board x coordinate of a model x coordinate.
+	 */
+	public int toScreenX (int x) {
+		return screen.x + x - cameraX;
+	}
+
+	/**
+	 * @return Returns the Board y coordinate of a model y coordinate.
+	 */
+	public int toScreenY (int y) {
+		return screen.y + y - cameraY;
+	}
+
+	/**
+	 * @return Returns true if the tile is (at least partly) in the view.
+	 */
+	public boolean isVisible (int col, int row) {
+		return visible.contains(col, row);
+	}
+
+	/**
+	 * @return Returns true if a TILE_SIZE square at the model position is (at least partly) in the view.
+	 */
+	public boolean isAreaVisible (int x, int y) {
+		return x+tileSize > cameraX && x < cameraX+screen.width && y+tileSize > cameraY && y < cameraY+screen.height;
+	}
+
+	/**
+	 * @return Returns the visible tiles (first column and row, number of columns and rows). Read only.
+	 */
+	public Rectangle getVisible () {
+		return visible;
+	}
+
+	/**
+	 * @return Returns the area of the Board the view is drawn to. Read only.
+	 */
+	public Rectangle getScreen () {
+		return screen;
+	}
+
+	public int getTarget () {
+		return target;
+	}
+
+	public int getCameraX () {
+		return cameraX;
+	}
+
+	public int getCameraY () {
+		return cameraY;
+	}
+}
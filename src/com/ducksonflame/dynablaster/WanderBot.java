@@ -0,0 +1,190 @@
+package com.ducksonflame.dynablaster;
+import java.util.SplittableRandom;
+
+/**
+ * Baseline Bot: walks in a random direction until blocked or bored, every other new direction heading towards the closest opponent.
+ * Standing next to a destructible wall, in line with an opponent within its range (or now and then anywhere) it drops a bomb if a short
+ * breadth-first search finds a free tile out of the bomb's reach, and then runs there. Drifting towards opponents keeps matches from
+ * running into the time limit on open arenas.
+ * <br>It does not watch other players' bombs or running explosions, so it still walks into fire - good enough to load the engine
+ * and to compare settings against each other, not to judge a strong player.
+ */
+public class WanderBot implements Bot {
+
+	private static final int[] DIRECTIONS = {Game.UP, Game.DOWN, Game.LEFT, Game.RIGHT};
+	private static final int[] STEP_COL = {0, 0, -1, 1};
+	private static final int[] STEP_ROW = {-1, 1, 0, 0};
+
+	//Chance of a bomb on an open tile is 1/BOMB_CHANCE per tick, escape paths are searched this many tiles deep
+	private static final int BOMB_CHANCE = 120;
+	private static final int ESCAPE_DEPTH = 6;
+
+	private final SplittableRandom random;
+	private int direction;
+	private int ticksLeft; //Until a new direction is picked
+	private int lastX;
+	private int lastY;
+
+	//Escape path after dropping a bomb: tiles as col + row*columns, walked from escapeNext to escapeLength-1, then waited at for escapeTicks
+	private final int[] escape = new int[ESCAPE_DEPTH+1];
+	private int escapeNext;
+	private int escapeLength;
+	private int escapeTicks;
+
+	//Breadth-first search scratch (reused, sized on first use)
+	private int[] parent;
+	private int[] depth;
+	private int[] queue;
+
+	/**
+	 * @param seed Seed of the bot's decisions
+	 */
+	public WanderBot (long seed) {
+		random = new SplittableRandom(seed);
+	}
+
+	@Override
+	public int nextInput (Game game, int player) {
+		Character c = game.getPlayers()[player];
+		int tile = game.getConfig().getTileSize();
+		TileGrid grid = game.getGrid();
+		boolean stuck = c.getX() == lastX && c.getY() == lastY;
+		lastX = c.getX();
+		lastY = c.getY();
+
+		if (escapeLength > 0 && --escapeTicks > 0) {
+			if (escapeNext == escapeLength) {
+				return 0; //Wait in cover until the explosion is over
+			}
+			int target = escape[escapeNext];
+			int targetX = (target % grid.getColumns())*tile;
+			int targetY = (target / grid.getColumns())*tile;
+			if (c.getX() == targetX && c.getY() == targetY) {
+				escapeNext++;
+				return nextInput(game, player);
+			}
+			return (c.getX() < targetX) ? Game.RIGHT : (c.getX() > targetX) ? Game.LEFT : (c.getY() < targetY) ? Game.DOWN : Game.UP;
+		}
+		escapeLength = 0;
+
+		if (--ticksLeft <= 0 || stuck) {
+			direction = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+			if (random.nextBoolean()) {
+				direction = towardsOpponent(game, player, c, direction);
+			}
+			ticksLeft = 30 + random.nextInt(90);
+		}
+		if (c.getX() % tile == 0 && c.getY() % tile == 0 && c.getBombsPlaced() == 0) {
+			int col = c.getX()/tile;
+			int row = c.getY()/tile;
+			if ((nextToWall(grid, col, row) || inLine(game, player, c, tile) || random.nextInt(BOMB_CHANCE) == 0) && findEscape(grid, col, row, c.getRange())) {
+				escapeTicks = GameLoop.millisToTicks(game.getConfig().getBombFuse() + game.getConfig().getExplosionLife());
+				return Game.BOMB;
+			}
+		}
+		return direction;
+	}
+
+	/**
+	 * @return Returns the direction along the longer axis towards the closest living opponent, or the given direction if there is none.
+	 */
+	private int towardsOpponent (Game game, int player, Character c, int direction) {
+		int best = Integer.MAX_VALUE;
+		Character[] players = game.getPlayers();
+		for (int p = 0; p < players.length; p++) {
+			if (p == player || players[p].isAlive() == false) {
+				continue;
+			}
+			int dx = players[p].getX() - c.getX();
+			int dy = players[p].getY() - c.getY();
+			if (Math.abs(dx) + Math.abs(dy) < best) {
+				best = Math.abs(dx) + Math.abs(dy);
+				direction = (Math.abs(dx) > Math.abs(dy)) ? ((dx > 0) ? Game.RIGHT : Game.LEFT) : ((dy > 0) ? Game.DOWN : Game.UP);
+			}
+		}
+		return direction;
+	}
+
+	/**
+	 * @return Returns true if a living opponent stands in the same row or column within the player's range (walls are not checked).
+	 */
+	private boolean inLine (Game game, int player, Character c, int tile) {
+		Character[] players = game.getPlayers();
+		for (int p = 0; p < players.length; p++) {
+			if (p == player || players[p].isAlive() == false) {
+				continue;
+			}
+			int dx = Math.abs(players[p].getTileX() - c.getX());
+			int dy = Math.abs(players[p].getTileY() - c.getY());
+			if ((dx == 0 && dy <= c.getRange()*tile) || (dy == 0 && dx <= c.getRange()*tile)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean nextToWall (TileGrid grid, int col, int row) {
+		for (int d = 0; d < DIRECTIONS.length; d++) {
+			if (grid.getTerrain(col+STEP_COL[d], row+STEP_ROW[d]) == TileGrid.WALL) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Searches free tiles around the bomb tile for the closest one out of the bomb's reach and stores the path to it.
+	 * @return Returns false if there is none within ESCAPE_DEPTH tiles.
+	 */
+	private boolean findEscape (TileGrid grid, int col, int row, int range) {
+		int columns = grid.getColumns();
+		if (parent == null || parent.length != columns*grid.getRows()) {
+			parent = new int[columns*grid.getRows()];
+			depth = new int[parent.length];
+			queue = new int[parent.length];
+		}
+		int start = col + row*columns;
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = start;
+		parent[start] = -1;
+		depth[start] = 0;
+		int rotation = random.nextInt(DIRECTIONS.length); //Equally close escapes go a random way, not always up first
+		while (head < tail) {
+			int current = queue[head++];
+			int c = current % columns;
+			int r = current / columns;
+			if ((c != col || Math.abs(r - row) > range) && (r != row || Math.abs(c - col) > range)) {
+				escapeLength = depth[current];
+				escapeNext = 0;
+				for (int i = current; i != start; i = parent[i]) {
+					escape[depth[i]-1] = i;
+				}
+				return true;
+			}
+			if (depth[current] == ESCAPE_DEPTH) {
+				continue;
+			}
+			for (int k = 0; k < DIRECTIONS.length; k++) {
+				int d = (k + rotation) % DIRECTIONS.length;
+				int next = current + STEP_COL[d] + STEP_ROW[d]*columns;
+				if (next == start || grid.getTerrain(c+STEP_COL[d], r+STEP_ROW[d]) != TileGrid.EMPTY || grid.hasBomb(c+STEP_COL[d], r+STEP_ROW[d])) {
+					continue;
+				}
+				boolean seen = false;
+				for (int i = 0; i < tail; i++) {
+					if (queue[i] == next) {
+						seen = true;
+						break;
+					}
+				}
+				if (seen == false) {
+					parent[next] = current;
+					depth[next] = depth[current]+1;
+					queue[tail++] = next;
+				}
+			}
+		}
+		return false;
+	}
+}